@@ -0,0 +1,197 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Database.PooledDatabase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs the operations of a handler asynchronously. Every method returns at once with a future completed by the result of the handler method,
+ * or completed exceptionally with the exception the handler method has thrown.<br />
+ * The operations run on virtual threads by default. How many operations run at the same time is bounded - by default by the maximum size of the
+ * connection pool, so waiting operations don't hold pooled connections.<br />
+ * Cancelling a future removes a waiting operation. A running operation is interrupted, but a statement already sent to the database runs to its end.
+ */
+public class AsyncHandler implements AutoCloseable {
+    private final Handler handler;
+    private final ExecutorService executorService;
+    private final boolean ownExecutor;
+    private final Semaphore permits;
+
+    /**
+     * Runs the operations on virtual threads, bounded by the maximum pool size of the database
+     *
+     * @param handler The handler running the operations
+     */
+    public AsyncHandler(Handler handler) {
+        this(handler, Executors.newVirtualThreadPerTaskExecutor(), AsyncHandler.getPoolSize(handler), true);
+    }
+
+    /**
+     * @param handler         The handler running the operations
+     * @param executorService The executor running the operations, not shut down by {@link #close()}
+     * @param maxInFlight     The maximum number of operations running at the same time
+     */
+    public AsyncHandler(Handler handler, ExecutorService executorService, int maxInFlight) {
+        this(handler, executorService, maxInFlight, false);
+    }
+
+    private AsyncHandler(Handler handler, ExecutorService executorService, int maxInFlight, boolean ownExecutor) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("At least one operation must be allowed to run");
+
+        this.handler = handler;
+        this.executorService = executorService;
+        this.ownExecutor = ownExecutor;
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    private static int getPoolSize(Handler handler) {
+        if (handler.abstractDatabase instanceof PooledDatabase pooledDatabase && pooledDatabase.getPool() != null) {
+            return pooledDatabase.getPool().getSettings().getMaximumPoolSize();
+        }
+
+        return 1; // SQLite shares one connection
+    }
+
+    /**
+     * The wrapped handler
+     */
+    public Handler getHandler() {
+        return this.handler;
+    }
+
+    /**
+     * The number of operations that could start right now
+     */
+    public int getAvailablePermits() {
+        return this.permits.availablePermits();
+    }
+
+    public CompletableFuture<Void> insert(Row row) {
+        return this.submit(() -> {
+            this.handler.insert(row);
+            return null;
+        });
+    }
+
+    public <T extends Row> CompletableFuture<Void> insert(List<T> entries) {
+        return this.submit(() -> {
+            this.handler.insert(entries);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> remove(Row row) {
+        return this.submit(() -> this.handler.remove(row));
+    }
+
+    public <T extends Row> CompletableFuture<Boolean> remove(Class<T> row, Helper helper) {
+        return this.submit(() -> this.handler.remove(row, helper));
+    }
+
+    public CompletableFuture<Boolean> update(Row row) {
+        return this.submit(() -> this.handler.update(row));
+    }
+
+    public CompletableFuture<Boolean> update(Row row, Helper helper) {
+        return this.submit(() -> this.handler.update(row, helper));
+    }
+
+    public CompletableFuture<Boolean> update(Row row, Helper helper, List<String> columns) {
+        return this.submit(() -> this.handler.update(row, helper, columns));
+    }
+
+    public CompletableFuture<Boolean> update(Row row, Helper helper, Map<String, Object> content) {
+        return this.submit(() -> this.handler.update(row, helper, content));
+    }
+
+    public <T extends Row> CompletableFuture<T> loadLast(Class<T> row) {
+        return this.submit(() -> this.handler.loadLast(row));
+    }
+
+    public <T extends Row> CompletableFuture<T> loadFirst(Class<T> row) {
+        return this.submit(() -> this.handler.loadFirst(row));
+    }
+
+    public <T extends Row> CompletableFuture<T> loadOne(Class<T> row, Helper helper) {
+        return this.submit(() -> this.handler.loadOne(row, helper));
+    }
+
+    public <T extends Row> CompletableFuture<List<T>> load(Class<T> row) {
+        return this.submit(() -> this.handler.load(row));
+    }
+
+    public <T extends Row> CompletableFuture<List<T>> load(Class<T> row, Helper helper) {
+        return this.submit(() -> this.handler.load(row, helper));
+    }
+
+    /**
+     * Passes all matching rows to the consumer on the thread of the operation, see {@link Handler#forEach(Class, Helper, Consumer)}
+     */
+    public <T extends Row> CompletableFuture<Void> forEach(Class<T> row, Helper helper, Consumer<? super T> consumer) {
+        return this.submit(() -> {
+            this.handler.forEach(row, helper, consumer);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> exist(Row row) {
+        return this.submit(() -> this.handler.exist(row));
+    }
+
+    public <T extends Row> CompletableFuture<Long> count(Class<T> row, Helper helper) {
+        return this.submit(() -> this.handler.count(row, helper));
+    }
+
+    /**
+     * Runs any operation of the handler asynchronously, bounded like all other operations
+     *
+     * @param operation The operation
+     * @return The future of the result
+     */
+    public <R> CompletableFuture<R> submit(Operation<R> operation) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+
+        Future<?> task = this.executorService.submit(() -> {
+            if (future.isDone()) return; // Cancelled before it could start
+
+            try {
+                this.permits.acquire();
+            } catch (InterruptedException exc) {
+                future.completeExceptionally(new CancellationException("Interrupted while waiting to run"));
+                return;
+            }
+
+            try {
+                if (!future.isDone()) future.complete(operation.run());
+            } catch (Throwable exc) {
+                future.completeExceptionally(exc);
+            } finally {
+                this.permits.release();
+            }
+        });
+
+        future.whenComplete((result, exc) -> {
+            if (future.isCancelled()) task.cancel(true);
+        });
+
+        return future;
+    }
+
+    /**
+     * Shuts down the executor when it was created by this handler. Already submitted operations still run.
+     */
+    public void close() {
+        if (this.ownExecutor) this.executorService.shutdown();
+    }
+
+    /**
+     * An operation on the handler
+     */
+    @FunctionalInterface
+    public interface Operation<R> {
+        R run() throws Exception;
+    }
+}
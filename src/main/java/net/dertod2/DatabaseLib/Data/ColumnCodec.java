@@ -0,0 +1,102 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Data.Types.AbstractType;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Types;
+
+/**
+ * The resolved data type of one column for one database. Resolved once per table, so reading and binding values doesn't need to look up the type again.
+ */
+public class ColumnCodec {
+    private final Type type;
+    private final Type[] genericTypes;
+
+    private final IncludedTypes includedType;
+    private final AbstractType abstractType;
+    private final boolean nullable;
+    private final int sqlType;
+    private final boolean lazy;
+
+    public ColumnCodec(Type type, AbstractType abstractType) {
+        this(type, abstractType, false);
+    }
+
+    /**
+     * @param type         The field type, for lazy fields the type inside {@link Lazy}
+     * @param abstractType The custom type registered for the field type or null
+     * @param lazy         Wherever the field is wrapped into {@link Lazy}
+     */
+    public ColumnCodec(Type type, AbstractType abstractType, boolean lazy) {
+        this.type = type;
+        this.lazy = lazy;
+        this.genericTypes = type instanceof ParameterizedType parameterizedType ? parameterizedType.getActualTypeArguments() : null;
+
+        this.includedType = IncludedTypes.getByObject(type.getTypeName());
+        this.abstractType = this.includedType == IncludedTypes.Unknown ? abstractType : null;
+        this.nullable = lazy || !(type instanceof Class<?> clazz && clazz.isPrimitive());
+
+        this.sqlType = switch (this.includedType) {
+            case Boolean -> Types.BOOLEAN;
+            case Byte -> Types.TINYINT;
+            case Short -> Types.SMALLINT;
+            case Int -> Types.INTEGER;
+            case Long -> Types.BIGINT;
+            case Float -> Types.REAL;
+            case Double -> Types.DOUBLE;
+            case Char, String -> Types.VARCHAR;
+            case Timestamp -> Types.TIMESTAMP;
+            case Unknown -> Types.VARCHAR; // Custom and serialized types are saved as text
+        };
+    }
+
+    /**
+     * The generic type of the field, for lazy fields the type inside {@link Lazy}
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * The generic arguments of the field or null when the field has none
+     */
+    public Type[] getGenericTypes() {
+        return this.genericTypes;
+    }
+
+    /**
+     * The included type or {@link IncludedTypes#Unknown} for custom types
+     */
+    public IncludedTypes getIncludedType() {
+        return this.includedType;
+    }
+
+    /**
+     * Wherever the field can hold null. Primitive fields can't, so SQL NULL will be read as their default value.
+     */
+    public boolean isNullable() {
+        return this.nullable;
+    }
+
+    /**
+     * The {@link Types} constant used to bind a null value
+     */
+    public int getSqlType() {
+        return this.sqlType;
+    }
+
+    /**
+     * Wherever the field is a {@link Lazy} wrapper around the type of this codec
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * The custom type registered in the database for this field or null
+     */
+    public AbstractType getAbstractType() {
+        return this.abstractType;
+    }
+}
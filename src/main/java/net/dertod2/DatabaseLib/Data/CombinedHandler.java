@@ -9,7 +9,6 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -28,7 +27,7 @@ public abstract class CombinedHandler extends DriverHandler {
     }
 
     public void insert(Row tableRow) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         this.insert(tableRow, connection);
         this.closeConnection(connection, null, null);
     }
@@ -36,68 +35,120 @@ public abstract class CombinedHandler extends DriverHandler {
     public <T extends Row> void insert(List<T> entries) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
         if (entries.isEmpty()) return;
 
-        Connection connection = abstractDatabase.getConnection();
-        for (T tableRow : entries) this.insert(tableRow, connection);
-        this.closeConnection(connection, null, null);
+        Map<Class<? extends Row>, List<Row>> tableEntryList = groupByTable(entries);
+        Connection connection = this.getConnection();
+
+        try {
+            this.inTransaction(connection, transaction -> { // All chunks in one transaction
+                for (Map.Entry<Class<? extends Row>, List<Row>> entry : tableEntryList.entrySet()) {
+                    this.insert(TableCache.getCache(entry.getKey(), this), entry.getValue(), transaction);
+                }
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
+        }
     }
 
-    protected void insert(Row tableRow, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
-        TableCache tableCache = TableCache.getCache(tableRow.getClass(), this);
+    /**
+     * Inserts the rows of one table with multi row statements of up to batchSize rows each
+     */
+    protected void insert(TableCache tableCache, List<Row> tableRows, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+        List<Column> insertColumns = queryTemplates.getInsertColumns();
 
-        PreparedStatement preparedStatement;
-        ResultSet resultSet = null;
+        if (insertColumns.isEmpty()) { // Nothing to bind - MySQL and SQLite share no multi row syntax for this
+            for (Row tableRow : tableRows) this.insert(tableRow, connection);
+            return;
+        }
+
+        int[] columnIndexes = new int[insertColumns.size()];
+        ColumnCodec[] columnCodecs = new ColumnCodec[insertColumns.size()];
 
-        Map<Column, Object> dataList = tableRow.getColumns();
-        Iterator<Column> iterator = dataList.keySet().iterator();
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = tableCache.getIndex(insertColumns.get(i));
+            columnCodecs[i] = tableCache.getCodec(this, insertColumns.get(i));
+        }
+
+        int chunkSize = Math.max(1, Math.min(this.batchSize, this.getMaxParameters() / columnIndexes.length));
+        int generatedKeys = tableCache.hasPrimaryKey() ? PreparedStatement.RETURN_GENERATED_KEYS : PreparedStatement.NO_GENERATED_KEYS;
+
+        PreparedStatement preparedStatement = null;
+        int preparedRows = 0;
+
+        try {
+            for (int offset = 0; offset < tableRows.size(); offset += chunkSize) {
+                List<Row> chunk = tableRows.subList(offset, Math.min(offset + chunkSize, tableRows.size()));
+
+                if (chunk.size() != preparedRows) { // Only the last chunk needs an own statement
+                    this.closeConnection(null, preparedStatement, null);
 
-        StringBuilder columnList = new StringBuilder();
-        StringBuilder valueList = new StringBuilder();
+                    preparedStatement = connection.prepareStatement(queryTemplates.getInsert(chunk.size()), generatedKeys);
+                    preparedRows = chunk.size();
+                }
 
-        while (iterator.hasNext()) {
-            Column column = iterator.next();
-            if (column.autoIncrement() || column.columnType() == Column.ColumnType.Primary)
-                continue; // Skip auto Increment - the database sets the value itself
+                int index = 1;
+                for (Row tableRow : chunk) {
+                    for (int i = 0; i < columnIndexes.length; i++) {
+                        this.set(index++, preparedStatement, tableCache.get(tableRow, columnIndexes[i]), columnCodecs[i]);
+                    }
+                }
 
-            columnList.append("`").append(tableCache.getName(column)).append("`, ");
-            valueList.append("?, ");
+                preparedStatement.executeUpdate();
+                if (tableCache.hasPrimaryKey()) this.readGeneratedKeys(tableCache, chunk, preparedStatement);
+
+                for (Row tableRow : chunk) tableRow.isLoaded = true;
+            }
+        } finally {
+            this.closeConnection(null, preparedStatement, null);
+            this.invalidate(tableCache);
         }
+    }
+
+    /**
+     * Writes the generated primary keys of a multi row insert back into the rows
+     */
+    void readGeneratedKeys(TableCache tableCache, List<Row> chunk, PreparedStatement preparedStatement) throws SQLException {
+        Column primaryKey = tableCache.getPrimaryKey();
+        ResultSet resultSet = preparedStatement.getGeneratedKeys();
 
-        // Remove the leading letter
-        if (!columnList.isEmpty()) columnList.delete(columnList.length() - 2, columnList.length());
-        if (!valueList.isEmpty()) valueList.delete(valueList.length() - 2, valueList.length());
+        try {
+            for (Row tableRow : chunk) {
+                if (!resultSet.next()) break;
+                tableCache.set(tableRow, primaryKey, resultSet.getInt(1));
+            }
+        } finally {
+            this.closeConnection(null, null, resultSet);
+        }
+    }
 
-        preparedStatement = connection.prepareStatement("INSERT INTO `" + tableCache.getTable() + "` (" + columnList + ") VALUES (" + valueList + ");", PreparedStatement.RETURN_GENERATED_KEYS);
+    protected void insert(Row tableRow, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        TableCache tableCache = TableCache.getCache(tableRow.getClass(), this);
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
 
-        iterator = dataList.keySet().iterator(); // Need again... cause iterator can't start over again
+        PreparedStatement preparedStatement = connection.prepareStatement(queryTemplates.getInsert(), PreparedStatement.RETURN_GENERATED_KEYS);
+        ResultSet resultSet = null;
 
         int index = 1;
-        while (iterator.hasNext()) {
-            Column column = iterator.next();
-            if (column.autoIncrement() || column.columnType() == Column.ColumnType.Primary)
-                continue; // Skip auto Increment - the database sets the value itself
-            Object columnValue = dataList.get(column);
-
-            this.set(index++, preparedStatement, columnValue, tableCache.getType(column));
+        for (Column column : queryTemplates.getInsertColumns()) {
+            this.set(index++, preparedStatement, tableCache.get(tableRow, column), tableCache.getCodec(this, column));
         }
 
         preparedStatement.executeUpdate();
 
-        boolean hasPrimaryKey = tableCache.hasPrimaryKey();
-        Column primaryKey = tableCache.getPrimaryKey();
-
-        if (hasPrimaryKey) {
+        if (tableCache.hasPrimaryKey()) {
             resultSet = preparedStatement.getGeneratedKeys();
-            if (resultSet.next()) tableRow.setColumn(primaryKey, resultSet.getInt(1));
+            if (resultSet.next()) tableCache.set(tableRow, tableCache.getPrimaryKey(), resultSet.getInt(1));
         }
 
         tableRow.isLoaded = true;
         this.closeConnection(null, preparedStatement, resultSet);
+        this.invalidate(tableCache);
     }
 
     public <T extends Row> boolean remove(Class<T> row, Helper helper) throws SQLException, IOException {
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
 
         TableCache tableCache = TableCache.getCache(row, this);
@@ -112,6 +163,7 @@ public abstract class CombinedHandler extends DriverHandler {
 
         preparedStatement.executeUpdate();
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return true;
     }
@@ -121,42 +173,47 @@ public abstract class CombinedHandler extends DriverHandler {
 
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         boolean returnResult;
 
         TableCache tableCache = TableCache.getCache(row.getClass(), this);
-        Map<Column, Object> columnList = row.getColumns();
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
 
-        StringBuilder set = new StringBuilder();
+        String update;
+        List<Column> updateColumns;
 
-        for (Column column : columnList.keySet()) {
-            if (column.columnType() == Column.ColumnType.Primary || column.autoIncrement()) continue;
-            if (rows != null && !rows.isEmpty() && !rows.contains(tableCache.getName(column))) continue;
+        if (rows == null || rows.isEmpty()) {
+            update = queryTemplates.getUpdate();
+            updateColumns = queryTemplates.getUpdateColumns();
+        } else {
+            StringBuilder set = new StringBuilder();
+            updateColumns = new ArrayList<>();
 
-            if (!set.isEmpty()) {
-                set.append(", `").append(tableCache.getName(column)).append("` = ?");
-            } else {
+            for (Column column : queryTemplates.getUpdateColumns()) {
+                if (!rows.contains(tableCache.getName(column))) continue;
+
+                if (!set.isEmpty()) set.append(", ");
                 set.append("`").append(tableCache.getName(column)).append("` = ?");
+                updateColumns.add(column);
             }
+
+            update = "UPDATE " + queryTemplates.getTable() + " SET " + set;
         }
 
         int index = 1;
 
         String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        PreparedStatement preparedStatement = connection.prepareStatement("UPDATE `" + tableCache.getTable() + "` SET " + set + where + ";");
+        PreparedStatement preparedStatement = connection.prepareStatement(update + where + ";");
 
-        for (Column column : columnList.keySet()) {
-            if (column.columnType() == Column.ColumnType.Primary || column.autoIncrement()) continue;
-            if (rows != null && !rows.isEmpty() && !rows.contains(tableCache.getName(column))) continue;
-
-            Object columnValue = columnList.get(column);
-            this.set(index++, preparedStatement, columnValue, tableCache.getType(column));
+        for (Column column : updateColumns) {
+            this.set(index++, preparedStatement, tableCache.get(row, column), tableCache.getCodec(this, column));
         }
 
         this.fillWhereQueue(index, tableCache, helper, preparedStatement);
 
         returnResult = preparedStatement.executeUpdate() > 0;
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return returnResult;
     }
@@ -166,7 +223,7 @@ public abstract class CombinedHandler extends DriverHandler {
             throw new NullPointerException("The specificRows argument can't be null");
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         boolean returnResult;
 
         TableCache tableCache = TableCache.getCache(row.getClass(), this);
@@ -194,13 +251,14 @@ public abstract class CombinedHandler extends DriverHandler {
             Column column = tableCache.getColumn(columnName);
 
             if (column.columnType() == Column.ColumnType.Primary || column.autoIncrement()) continue;
-            this.set(index++, preparedStatement, content.get(columnName), tableCache.getType(column));
+            this.set(index++, preparedStatement, content.get(columnName), tableCache.getCodec(this, column));
         }
 
         this.fillWhereQueue(index, tableCache, helper, preparedStatement);
 
         returnResult = preparedStatement.executeUpdate() > 0;
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return returnResult;
     }
@@ -209,17 +267,40 @@ public abstract class CombinedHandler extends DriverHandler {
         if (helper == null) helper = new Helper();
 
         TableCache tableCache = TableCache.getCache(row, this);
-        Connection connection = abstractDatabase.getConnection();
+        QueryCache.QueryKey queryKey = this.getQueryKey(tableCache, false, helper);
 
-        StringBuilder get = new StringBuilder();
-        StringBuilder last = new StringBuilder();
+        if (queryKey != null) {
+            List<T> cached = this.queryCache.getRows(queryKey, tableCache, row);
+            if (cached != null) return cached;
+        }
+
+        Connection connection = this.getConnection();
+
+        int[] projection = this.getProjection(tableCache, helper);
+        List<String> loadedColumns = this.getProjectionNames(tableCache, projection);
+
+        PreparedStatement preparedStatement = connection.prepareStatement(this.buildSelect(tableCache, helper, projection));
+        this.fillWhereQueue(tableCache, helper, preparedStatement);
+
+        ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet == null) return new ArrayList<>();
+        List<T> results = new ArrayList<>();
+        ColumnCodec[] columnCodecs = tableCache.getCodecs(this);
+        boolean[] binaryColumns = this.getBinaryColumns(resultSet, columnCodecs, projection);
 
-        List<Column> tableLayout = tableCache.getLayout();
-        for (Column value : tableLayout) {
-            if (!get.isEmpty()) get.append(", ");
-            get.append("`").append(tableCache.getName(value)).append("`");
+        while (resultSet.next()) {
+            results.add(this.hydrate(row, tableCache, columnCodecs, projection, loadedColumns, binaryColumns, resultSet));
         }
 
+        this.closeConnection(connection, preparedStatement, resultSet);
+        if (queryKey != null) this.queryCache.putRows(queryKey, tableCache, results);
+
+        return results;
+    }
+
+    String buildSelect(TableCache tableCache, Helper helper, int[] projection) {
+        StringBuilder last = new StringBuilder();
+
         if (!helper.groupBy.isEmpty()) {
             last.append(" GROUP BY ");
 
@@ -243,41 +324,25 @@ public abstract class CombinedHandler extends DriverHandler {
         if (helper.limit > 0) last.append(" LIMIT ").append(helper.limit);
         if (helper.offset > 0) last.append(" OFFSET ").append(helper.offset);
 
-        String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        PreparedStatement preparedStatement = connection.prepareStatement("SELECT " + get + " FROM `" + tableCache.getTable() + "`" + where + last + ";");
-        this.fillWhereQueue(tableCache, helper, preparedStatement);
-
-        ResultSet resultSet = preparedStatement.executeQuery();
-        if (resultSet == null) return new ArrayList<>();
-        List<T> results = new ArrayList<>();
-
-        while (resultSet.next()) {
-            @SuppressWarnings("deprecation")
-            T newInstance = row.newInstance();
-
-            for (Column column : tableLayout) {
-                newInstance.setColumn(column, this.get(resultSet, column, tableCache.getType(column)));
-            }
-
-            newInstance.isLoaded = true;
-            results.add(newInstance);
-        }
-
-        this.closeConnection(connection, preparedStatement, resultSet);
-
-        return results;
+        return tableCache.getTemplates(this).getSelect(projection) + helper.buildWhereQueue(this.abstractDatabase.getType()) + last + ";";
     }
 
     public <T extends Row> long count(Class<T> row, Helper helper) throws SQLException, IllegalArgumentException, IOException {
-        Connection connection = abstractDatabase.getConnection();
         PreparedStatement preparedStatement;
         ResultSet resultSet;
         long result = 0;
 
         TableCache tableCache = TableCache.getCache(row, this);
+        QueryCache.QueryKey queryKey = this.getQueryKey(tableCache, true, helper);
 
+        if (queryKey != null) {
+            Long cached = this.queryCache.getCount(queryKey);
+            if (cached != null) return cached;
+        }
+
+        Connection connection = this.getConnection();
         String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        preparedStatement = connection.prepareStatement("SELECT COUNT(*) AS elements FROM `" + tableCache.getTable() + "`" + where + ";");
+        preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getCount() + where + ";");
 
         this.fillWhereQueue(tableCache, helper, preparedStatement);
 
@@ -286,27 +351,32 @@ public abstract class CombinedHandler extends DriverHandler {
             result = resultSet.getLong("elements");
         }
 
+        if (queryKey != null) this.queryCache.putCount(queryKey, result);
         this.closeConnection(connection, preparedStatement, resultSet);
 
         return result;
     }
 
+    QueryTemplates createTemplates(TableCache tableCache) {
+        return new QueryTemplates(tableCache, "`", false);
+    }
+
     void addColumn(TableCache tableCache, Column column) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
 
         List<Column> layout = tableCache.getLayout();
         String whereToAdd = column.order() == -1 ? "" :
                 column.order() == 1 && layout.size() > 1 ? " BEFORE `" + tableCache.getName(layout.get(column.order() + 1)) + "`" :
                         column.order() > 1 && layout.size() >= column.order() ? " AFTER `" + tableCache.getName(layout.get(column.order() - 1)) + "`" : "";
 
-        PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE `" + tableCache.getTable() + "` ADD `" + tableCache.getName(column) + "` " + toDatabaseType(tableCache.getType(column)) + (column.columnType() == Column.ColumnType.Unique ? " UNIQUE" : "") + whereToAdd + ";");
+        PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE `" + tableCache.getTable() + "` ADD `" + tableCache.getName(column) + "` " + toDatabaseType(tableCache.getCodec(this, column)) + (column.columnType() == Column.ColumnType.Unique ? " UNIQUE" : "") + whereToAdd + ";");
         preparedStatement.execute();
 
         this.closeConnection(connection, preparedStatement, null);
     }
 
     void delColumn(TableCache tableCache, String columnName) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
 
         PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE `" + tableCache.getTable() + "` DROP `" + columnName + "`;");
         preparedStatement.execute();
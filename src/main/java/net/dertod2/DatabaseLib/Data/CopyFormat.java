@@ -0,0 +1,15 @@
+package net.dertod2.DatabaseLib.Data;
+
+/**
+ * The format the PostGRE handler uses to stream rows with COPY into the database
+ */
+public enum CopyFormat {
+    /**
+     * Tab separated text - works with every column type
+     */
+    Text,
+    /**
+     * The binary COPY format. Faster to parse for the server, but the column types of the table must match the types created by this library.
+     */
+    Binary
+}
@@ -0,0 +1,248 @@
+package net.dertod2.DatabaseLib.Data;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+
+/**
+ * Encodes rows directly into the stream of a running COPY ... FROM STDIN. The rows are buffered and written in blocks, so no row data is kept besides the buffer.
+ */
+class CopyWriter {
+    private static final byte[] BINARY_HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    private static final byte[] TEXT_NULL = {'\\', 'N'};
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final CopyIn copyIn;
+    private final CopyFormat copyFormat;
+
+    private final byte[] buffer = new byte[65536];
+    private int position;
+    private boolean firstValue;
+
+    CopyWriter(CopyIn copyIn, CopyFormat copyFormat) throws SQLException {
+        this.copyIn = copyIn;
+        this.copyFormat = copyFormat;
+
+        if (copyFormat == CopyFormat.Binary) this.writeBytes(BINARY_HEADER, 0, BINARY_HEADER.length);
+    }
+
+    /**
+     * The COPY statement for the given table and columns in the format of this writer
+     */
+    static String getStatement(String table, String columns, CopyFormat copyFormat) {
+        return "COPY " + table + " (" + columns + ") FROM STDIN" + (copyFormat == CopyFormat.Binary ? " WITH (FORMAT binary)" : "");
+    }
+
+    void startRow(int columns) throws SQLException {
+        this.firstValue = true;
+        if (this.copyFormat == CopyFormat.Binary) this.writeShort(columns);
+    }
+
+    void endRow() throws SQLException {
+        if (this.copyFormat == CopyFormat.Text) this.writeByte('\n');
+    }
+
+    /**
+     * Writes a serial key - serial columns are always created as BIGSERIAL
+     */
+    void writeKey(long key) throws SQLException {
+        if (this.copyFormat == CopyFormat.Binary) {
+            this.writeInt(8);
+            this.writeLong(key);
+        } else {
+            this.writeText(Long.toString(key), false);
+        }
+    }
+
+    /**
+     * Writes one value of an included type, encoded like the column type created by the handler
+     */
+    void write(Object value, IncludedTypes includedType) throws SQLException {
+        if (value == null) {
+            this.writeNull();
+            return;
+        }
+
+        if (this.copyFormat == CopyFormat.Text) {
+            switch (includedType) {
+                case Boolean -> this.writeText((Boolean) value ? "t" : "f", false);
+                case Byte, Short, Int, Long, Float, Double -> this.writeText(value.toString(), false);
+                case Timestamp -> this.writeText(((Timestamp) value).toLocalDateTime().toString(), false);
+                default -> this.writeText(value.toString(), true);
+            }
+
+            return;
+        }
+
+        switch (includedType) {
+            case Boolean -> {
+                this.writeInt(1);
+                this.writeByte((Boolean) value ? 1 : 0);
+            }
+            case Byte, Short, Int -> { // INTEGER
+                this.writeInt(4);
+                this.writeInt(((Number) value).intValue());
+            }
+            case Long -> {
+                this.writeInt(8);
+                this.writeLong((Long) value);
+            }
+            case Float, Double -> { // DOUBLE PRECISION
+                this.writeInt(8);
+                this.writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+            }
+            case Timestamp -> { // Microseconds since 2000-01-01 without time zone
+                this.writeInt(8);
+                this.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, ((Timestamp) value).toLocalDateTime()));
+            }
+            default -> this.writeText(value.toString(), true);
+        }
+    }
+
+    /**
+     * Writes a value that is saved as TEXT or null
+     */
+    void writeText(String value) throws SQLException {
+        if (value == null) this.writeNull();
+        else this.writeText(value, true);
+    }
+
+    /**
+     * Writes a value that is saved as BYTEA or null
+     */
+    void writeBinary(byte[] value) throws SQLException {
+        if (value == null) {
+            this.writeNull();
+        } else if (this.copyFormat == CopyFormat.Binary) {
+            this.writeInt(value.length);
+            this.writeBytes(value, 0, value.length);
+        } else {
+            this.writeText("\\x" + HexFormat.of().formatHex(value), true); // The escaped backslash reaches the server as hex prefix
+        }
+    }
+
+    /**
+     * Ends the COPY and returns the number of written rows
+     */
+    long finish() throws SQLException {
+        if (this.copyFormat == CopyFormat.Binary) this.writeShort(-1);
+        this.flush();
+
+        return this.copyIn.endCopy();
+    }
+
+    /**
+     * Aborts the COPY, the server discards all rows of it
+     */
+    void cancel() {
+        try {
+            if (this.copyIn.isActive()) this.copyIn.cancelCopy();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void writeNull() throws SQLException {
+        if (this.copyFormat == CopyFormat.Binary) {
+            this.writeInt(-1);
+        } else {
+            this.writeSeparator();
+            this.writeBytes(TEXT_NULL, 0, TEXT_NULL.length);
+        }
+    }
+
+    private void writeText(String value, boolean escape) throws SQLException {
+        if (this.copyFormat == CopyFormat.Binary) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            this.writeInt(bytes.length);
+            this.writeBytes(bytes, 0, bytes.length);
+            return;
+        }
+
+        this.writeSeparator();
+
+        if (escape) {
+            StringBuilder stringBuilder = null;
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String replacement = switch (c) {
+                    case '\\' -> "\\\\";
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    default -> null;
+                };
+
+                if (replacement != null) {
+                    if (stringBuilder == null) stringBuilder = new StringBuilder(value.length() + 16).append(value, 0, i);
+                    stringBuilder.append(replacement);
+                } else if (stringBuilder != null) {
+                    stringBuilder.append(c);
+                }
+            }
+
+            if (stringBuilder != null) value = stringBuilder.toString();
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeSeparator() throws SQLException {
+        if (!this.firstValue) this.writeByte('\t');
+        this.firstValue = false;
+    }
+
+    private void writeShort(int value) throws SQLException {
+        this.ensure(2);
+        this.buffer[this.position++] = (byte) (value >>> 8);
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    private void writeInt(int value) throws SQLException {
+        this.ensure(4);
+        this.buffer[this.position++] = (byte) (value >>> 24);
+        this.buffer[this.position++] = (byte) (value >>> 16);
+        this.buffer[this.position++] = (byte) (value >>> 8);
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    private void writeLong(long value) throws SQLException {
+        this.writeInt((int) (value >>> 32));
+        this.writeInt((int) value);
+    }
+
+    private void writeByte(int value) throws SQLException {
+        this.ensure(1);
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws SQLException {
+        if (length > this.buffer.length) { // Larger than the whole buffer - write through
+            this.flush();
+            this.copyIn.writeToCopy(bytes, offset, length);
+            return;
+        }
+
+        this.ensure(length);
+        System.arraycopy(bytes, offset, this.buffer, this.position, length);
+        this.position += length;
+    }
+
+    private void ensure(int length) throws SQLException {
+        if (this.position + length > this.buffer.length) this.flush();
+    }
+
+    private void flush() throws SQLException {
+        if (this.position == 0) return;
+
+        this.copyIn.writeToCopy(this.buffer, 0, this.position);
+        this.position = 0;
+    }
+}
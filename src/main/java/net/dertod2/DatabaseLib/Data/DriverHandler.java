@@ -10,16 +10,135 @@ import java.lang.reflect.Type;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 public abstract class DriverHandler extends Handler {
 
+    private static final int BINARY_RAW = 0;
+    private static final int BINARY_DEFLATE = 1;
+    private static final int BINARY_LEGACY = 0xAC; // First byte of a java serialization stream, saved before binary values had a header
+
+    protected QueryCache queryCache;
+    protected boolean binarySerialization;
+    protected ObjectSerializer objectSerializer = ObjectSerializer.JAVA;
+    protected int compressionThreshold = 4096;
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> pendingInvalidations = new ThreadLocal<>(); // Cache invalidations of the running inTransaction task
+
     public DriverHandler(DriverDatabase driverDatabase) {
         super(driverDatabase);
     }
 
-    void set(int index, PreparedStatement preparedStatement, Object value, Type type) throws SQLException, IOException {
-        switch (IncludedTypes.getByObject(type.getTypeName())) {
+    /**
+     * Caches the results of load and count with the same helper. Writes of this handler invalidate the cached queries of the written table.
+     *
+     * @param maximumRows The maximum number of cached rows, each count result counts as one row
+     * @param cacheTime   The seconds a result stays cached, 0 keeps it until it's evicted by size or a write
+     */
+    public void enableQueryCache(long maximumRows, long cacheTime) {
+        this.queryCache = new QueryCache(this, maximumRows, cacheTime);
+    }
+
+    /**
+     * The query cache or null when it's not enabled
+     */
+    public QueryCache getQueryCache() {
+        return this.queryCache;
+    }
+
+    public boolean isBinarySerialization() {
+        return this.binarySerialization;
+    }
+
+    /**
+     * Saves custom type columns without a registered data type in binary columns (BYTEA, BLOB or LONGBLOB) instead of Base64 text.
+     * Affects created tables and columns and how the values are written, while both layouts are read. An existing column only needs
+     * its Base64 text decoded into binary, for example with ALTER COLUMN column TYPE BYTEA USING decode(column, 'base64') on PostgreSQL.
+     */
+    public void setBinarySerialization(boolean binarySerialization) {
+        this.binarySerialization = binarySerialization;
+    }
+
+    public ObjectSerializer getObjectSerializer() {
+        return this.objectSerializer;
+    }
+
+    /**
+     * Sets the serializer for values saved in binary columns. Values saved with another serializer can't be read anymore
+     */
+    public void setObjectSerializer(ObjectSerializer objectSerializer) {
+        if (objectSerializer == null) throw new IllegalArgumentException("The object serializer can't be null");
+        this.objectSerializer = objectSerializer;
+    }
+
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Sets the size in bytes above which binary values are compressed with Deflate, -1 never compresses
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < -1) throw new IllegalArgumentException("The compression threshold must be at least -1");
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public Transaction beginTransaction() throws SQLException {
+        if (this.transaction.get() != null) throw new SQLException("There is already an open transaction in this thread");
+
+        Connection connection = abstractDatabase.getConnection();
+        try {
+            Transaction transaction = new Transaction(this, connection);
+            this.transaction.set(transaction);
+
+            return transaction;
+        } catch (SQLException | RuntimeException exc) {
+            this.closeConnection(connection, null, null);
+            throw exc;
+        }
+    }
+
+    void endTransaction(Transaction transaction) {
+        if (this.transaction.get() == transaction) this.transaction.remove();
+    }
+
+    /**
+     * The connection for the next operation: the pinned connection of the open transaction of this thread or a new one
+     */
+    protected Connection getConnection() {
+        Transaction transaction = this.transaction.get();
+        return transaction != null ? transaction.getConnection() : abstractDatabase.getConnection();
+    }
+
+    static final ColumnCodec LENGTH_CODEC = new ColumnCodec(Integer.class, null);
+
+    void set(int index, PreparedStatement preparedStatement, Object value, ColumnCodec columnCodec) throws SQLException, IOException {
+        if (columnCodec.isLazy() && value instanceof Lazy<?> lazy) {
+            String raw = lazy.getRaw();
+            if (raw != null) { // Untouched - written back as it was read
+                preparedStatement.setString(index, raw);
+                return;
+            }
+
+            value = lazy.get();
+        }
+
+        if (value == null && columnCodec.getIncludedType() != IncludedTypes.Unknown) {
+            preparedStatement.setNull(index, columnCodec.getSqlType());
+            return;
+        }
+
+        switch (columnCodec.getIncludedType()) {
             case Boolean -> preparedStatement.setBoolean(index, (Boolean) value);
             case Byte -> preparedStatement.setByte(index, (Byte) value);
             case Char -> preparedStatement.setString(index, ((Character) value).toString());
@@ -31,84 +150,465 @@ public abstract class DriverHandler extends Handler {
             case String -> preparedStatement.setString(index, (String) value);
             case Timestamp -> preparedStatement.setTimestamp(index, (Timestamp) value);
             case Unknown -> {
-                AbstractType abstractType = this.abstractDatabase.getDataType(type.getTypeName());
-                if (abstractType != null) {
-                    preparedStatement.setString(index, abstractType.setResult(value));
-                } else if (value instanceof Serializable serializable) {
+                if (this.binarySerialization && this.isSerialized(columnCodec)) {
+                    if (value == null) {
+                        preparedStatement.setNull(index, Types.VARBINARY);
+                    } else {
+                        BinaryBuffer binaryBuffer = this.serialize(value);
+                        preparedStatement.setBinaryStream(index, new ByteArrayInputStream(binaryBuffer.array(), 0, binaryBuffer.size()), binaryBuffer.size());
+                    }
+
+                    return;
+                }
+
+                String text = this.encode(value, columnCodec);
+
+                if (text != null) preparedStatement.setString(index, text);
+                else preparedStatement.setNull(index, columnCodec.getSqlType());
+            }
+        }
+    }
+
+    /**
+     * Converts the value of a custom type column into the text saved in the database
+     *
+     * @return The text or null when the value is null or can't be handled
+     */
+    String encode(Object value, ColumnCodec columnCodec) throws IOException {
+        AbstractType abstractType = columnCodec.getAbstractType();
+        if (abstractType != null) return abstractType.setResult(value);
+        if (value == null) return null;
+
+        if (value instanceof Serializable serializable) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+
+            objectOutputStream.writeObject(serializable);
+            objectOutputStream.flush();
+            objectOutputStream.close();
+
+            return Base64.getEncoder().encodeToString(byteArrayOutputStream.toByteArray());
+        }
+
+        this.abstractDatabase.logger.severe(String.format("Unknown DataType to handle: %1$s", value.getClass().getName()));
+        return null;
+    }
+
+    /**
+     * Wherever the column is a custom type without registered data type, which is serialized
+     */
+    boolean isSerialized(ColumnCodec columnCodec) {
+        return columnCodec.getIncludedType() == IncludedTypes.Unknown && columnCodec.getAbstractType() == null;
+    }
+
+    /**
+     * Serializes the value for a binary column: one header byte for the layout followed by the serialized or compressed value
+     */
+    BinaryBuffer serialize(Object value) throws IOException {
+        BinaryBuffer binaryBuffer = new BinaryBuffer();
+        binaryBuffer.write(BINARY_RAW);
+        this.objectSerializer.serialize(value, binaryBuffer);
+
+        if (this.compressionThreshold < 0 || binaryBuffer.size() - 1 <= this.compressionThreshold) return binaryBuffer;
+
+        BinaryBuffer compressedBuffer = new BinaryBuffer();
+        compressedBuffer.write(BINARY_DEFLATE);
+
+        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressedBuffer)) {
+            deflaterOutputStream.write(binaryBuffer.array(), 1, binaryBuffer.size() - 1);
+        }
+
+        return compressedBuffer.size() < binaryBuffer.size() ? compressedBuffer : binaryBuffer;
+    }
+
+    /**
+     * Reads the value of a binary column
+     *
+     * @return The value or null when the value is null or can't be read
+     */
+    Object deserialize(InputStream inputStream, ColumnCodec columnCodec) {
+        if (inputStream == null) return null;
+
+        try (InputStream binaryStream = inputStream) {
+            int header = binaryStream.read();
+
+            return switch (header) {
+                case -1 -> null;
+                case BINARY_RAW -> this.objectSerializer.deserialize(binaryStream);
+                case BINARY_DEFLATE -> this.objectSerializer.deserialize(new InflaterInputStream(binaryStream));
+                case BINARY_LEGACY -> new ObjectInputStream(new SequenceInputStream(new ByteArrayInputStream(new byte[]{(byte) header}), binaryStream)).readObject();
+                default -> throw new StreamCorruptedException("Unknown binary layout " + header);
+            };
+        } catch (IOException | ClassNotFoundException exc) {
+            this.abstractDatabase.logger.log(Level.SEVERE, String.format("Unknown DataType to handle: %1$s", columnCodec.getType().getTypeName()), exc);
+            return null;
+        }
+    }
+
+    /**
+     * Wherever the column of the result set holds a serialized value in binary form, resolved once per result set
+     */
+    boolean isBinaryColumn(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec) throws SQLException {
+        if (!this.isSerialized(columnCodec)) return false;
+
+        return switch (resultSet.getMetaData().getColumnType(columnIndex)) {
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Resolves which selected columns of the result set hold serialized values in binary form
+     *
+     * @param columnCodecs The codecs of the table in layout order
+     * @param projection   The layout indexes of the selected columns in result set order or null when all columns are selected in layout order
+     * @return The flags in result set order or null when no selected column is binary
+     */
+    boolean[] getBinaryColumns(ResultSet resultSet, ColumnCodec[] columnCodecs, int[] projection) throws SQLException {
+        int columns = projection != null ? projection.length : columnCodecs.length;
+        boolean[] binaryColumns = null;
+
+        for (int i = 0; i < columns; i++) {
+            if (!this.isBinaryColumn(resultSet, i + 1, columnCodecs[projection != null ? projection[i] : i])) continue;
+
+            if (binaryColumns == null) binaryColumns = new boolean[columns];
+            binaryColumns[i] = true;
+        }
+
+        return binaryColumns;
+    }
+
+    /**
+     * A byte array output stream that exposes its buffer, so it can be bound without copying it
+     */
+    static final class BinaryBuffer extends ByteArrayOutputStream {
+        private BinaryBuffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return this.buf;
+        }
+    }
+
+    /**
+     * Splits the entries by their table, keeping the order of the rows of each table
+     */
+    static Map<Class<? extends Row>, List<Row>> groupByTable(List<? extends Row> entries) {
+        Map<Class<? extends Row>, List<Row>> tableEntryList = new LinkedHashMap<>();
+        for (Row tableRow : entries) tableEntryList.computeIfAbsent(tableRow.getClass(), key -> new ArrayList<>()).add(tableRow);
+
+        return tableEntryList;
+    }
+
+    /**
+     * Runs the task in one transaction. When the connection is already inside a transaction the task just joins it.
+     * The caches are invalidated after the commit, so concurrent loads can't cache the rows committed before.
+     */
+    void inTransaction(Connection connection, ConnectionTask connectionTask) throws SQLException, IOException, IllegalAccessException {
+        if (!connection.getAutoCommit()) {
+            connectionTask.run(connection);
+            return;
+        }
+
+        List<Runnable> pendingInvalidations = new ArrayList<>();
+
+        try {
+            connection.setAutoCommit(false);
+            this.pendingInvalidations.set(pendingInvalidations);
+
+            connectionTask.run(connection);
+            connection.commit();
+
+            this.pendingInvalidations.remove();
+            for (Runnable invalidation : pendingInvalidations) invalidation.run();
+        } catch (SQLException | IOException | IllegalAccessException | RuntimeException exc) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackExc) {
+                exc.addSuppressed(rollbackExc);
+            }
+
+            throw exc;
+        } finally {
+            this.pendingInvalidations.remove();
+
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    public <T extends Row> Stream<T> stream(Class<T> row, Helper helper) throws SQLException, IOException {
+        RowIterator<T> rowIterator = this.iterator(row, helper);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rowIterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(rowIterator::close);
+    }
+
+    /**
+     * Like {@link #stream(Class, Helper)}, but as iterator. Must be closed when not all rows are read.
+     *
+     * @param row    The Table Information
+     * @param helper The helper to order and sort out matching elements
+     * @return A lazy iterator over all matching elements of the table.
+     */
+    public <T extends Row> RowIterator<T> iterator(Class<T> row, Helper helper) throws SQLException, IOException {
+        if (helper == null) helper = new Helper();
+
+        TableCache tableCache = TableCache.getCache(row, this);
+        Connection connection = this.getConnection();
+        PreparedStatement preparedStatement = null;
+        boolean resetAutoCommit = false;
+
+        try {
+            if (this.isCursorInTransaction() && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                resetAutoCommit = true;
+            }
+
+            int[] projection = this.getProjection(tableCache, helper);
+
+            preparedStatement = connection.prepareStatement(this.buildSelect(tableCache, helper, projection));
+            preparedStatement.setFetchSize(this.getCursorFetchSize());
+            this.fillWhereQueue(tableCache, helper, preparedStatement);
+
+            return new RowIterator<>(this, row, tableCache, projection, connection, preparedStatement, preparedStatement.executeQuery(), resetAutoCommit);
+        } catch (SQLException | IOException | RuntimeException exc) {
+            this.closeConnection(connection, preparedStatement, null);
+            throw exc;
+        }
+    }
+
+    /**
+     * Builds the complete select statement for the rows matching the helper
+     *
+     * @param projection The layout indexes of the selected columns or null for all columns in layout order
+     */
+    abstract String buildSelect(TableCache tableCache, Helper helper, int[] projection);
+
+    /**
+     * Resolves the columns of the helper into their layout indexes, always including the primary key
+     *
+     * @return The sorted layout indexes or null when all columns are loaded
+     */
+    int[] getProjection(TableCache tableCache, Helper helper) {
+        if (helper.columns.isEmpty()) return null;
+
+        List<Column> layout = tableCache.getLayout();
+        boolean[] selected = new boolean[layout.size()];
+
+        if (tableCache.hasPrimaryKey()) selected[tableCache.getIndex(tableCache.getPrimaryKey())] = true;
+
+        for (String columnName : helper.columns) {
+            Column column = tableCache.getColumn(columnName);
+            if (column == null) throw new NoTableColumnException(columnName, tableCache);
+
+            selected[tableCache.getIndex(column)] = true;
+        }
+
+        int count = 0;
+        for (boolean isSelected : selected) if (isSelected) count++;
+        if (count == selected.length) return null;
+
+        int[] projection = new int[count];
+        for (int i = 0, p = 0; i < selected.length; i++) if (selected[i]) projection[p++] = i;
+
+        return projection;
+    }
+
+    /**
+     * The names of the projected columns, set on each row loaded with this projection
+     */
+    List<String> getProjectionNames(TableCache tableCache, int[] projection) {
+        if (projection == null) return null;
 
-                    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                    ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+        List<String> names = new ArrayList<>(projection.length);
+        for (int index : projection) names.add(tableCache.getName(tableCache.getLayout().get(index)));
 
-                    objectOutputStream.writeObject(serializable);
-                    objectOutputStream.flush();
-                    objectOutputStream.close();
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Wherever the database only uses a cursor for fetching when the statement runs inside a transaction
+     */
+    boolean isCursorInTransaction() {
+        return false;
+    }
+
+    /**
+     * The fetch size that makes the driver read the result with a cursor
+     */
+    int getCursorFetchSize() {
+        return this.fetchSize;
+    }
+
+    /**
+     * Creates the row out of the current line of the result set
+     *
+     * @param columnCodecs  The codecs of the table in layout order
+     * @param projection    The layout indexes of the selected columns in result set order or null when all columns are selected in layout order
+     * @param loadedColumns The names of the projected columns or null
+     * @param binaryColumns The flags of {@link #getBinaryColumns(ResultSet, ColumnCodec[], int[])} for the result set
+     */
+    <T extends Row> T hydrate(Class<T> row, TableCache tableCache, ColumnCodec[] columnCodecs, int[] projection, List<String> loadedColumns, boolean[] binaryColumns, ResultSet resultSet) throws SQLException, InstantiationException, IllegalAccessException {
+        @SuppressWarnings("deprecation")
+        T newInstance = row.newInstance();
 
-                    preparedStatement.setString(index, Base64.getEncoder().encodeToString(byteArrayOutputStream.toByteArray()));
-                } else {
-                    this.abstractDatabase.logger.severe(String.format("Unknown DataType to handle: %1$s", value.getClass().getName()));
+        if (projection == null) {
+            for (int i = 0; i < columnCodecs.length; i++) {
+                tableCache.set(newInstance, i, this.get(resultSet, i + 1, columnCodecs[i], binaryColumns != null && binaryColumns[i]));
+            }
+        } else {
+            for (int i = 0; i < projection.length; i++) {
+                tableCache.set(newInstance, projection[i], this.get(resultSet, i + 1, columnCodecs[projection[i]], binaryColumns != null && binaryColumns[i]));
+            }
+
+            if (tableCache.hasPrimaryKey()) { // Lazy columns skipped by the projection are fetched on first access
+                Object primaryKey = tableCache.get(newInstance, tableCache.getPrimaryKey());
+
+                for (int i = 0, p = 0; i < columnCodecs.length; i++) {
+                    if (p < projection.length && projection[p] == i) {
+                        p++;
+                    } else if (columnCodecs[i].isLazy()) {
+                        int index = i;
+                        tableCache.set(newInstance, i, new Lazy<>(null, () -> this.loadColumn(tableCache, index, primaryKey)));
+                    }
                 }
             }
+
+            newInstance.loadedColumns = loadedColumns;
+        }
+
+        newInstance.isLoaded = true;
+        return newInstance;
+    }
+
+    /**
+     * Reads the value of a column
+     *
+     * @param binary Wherever the column holds a serialized value in binary form
+     */
+    Object get(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        if (!columnCodec.isLazy()) return this.getValue(resultSet, columnIndex, columnCodec, binary);
+        if (columnCodec.getIncludedType() != IncludedTypes.Unknown) return new Lazy<>(this.getValue(resultSet, columnIndex, columnCodec, binary));
+
+        if (binary) {
+            byte[] bytes = resultSet.getBytes(columnIndex); // Deserialized on first access
+            return bytes != null ? Lazy.binary(bytes, () -> this.deserialize(new ByteArrayInputStream(bytes), columnCodec)) : new Lazy<>(null);
         }
+
+        String raw = resultSet.getString(columnIndex); // Decoded on first access
+        return new Lazy<>(raw, () -> this.decode(raw, columnCodec));
+    }
+
+    private Object getValue(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        Object value = this.read(resultSet, columnIndex, columnCodec, binary);
+        if (columnCodec.getIncludedType() == IncludedTypes.Unknown || !resultSet.wasNull()) return value;
+
+        // SQL NULL - primitive fields keep the default value of the driver
+        return columnCodec.isNullable() ? null : columnCodec.getIncludedType() == IncludedTypes.Char ? (char) 0 : value;
     }
 
-    Object get(ResultSet resultSet, Column column, Type type) throws SQLException {
-        switch (IncludedTypes.getByObject(type.getTypeName())) {
+    private Object read(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        switch (columnCodec.getIncludedType()) {
             case Boolean -> {
-                return resultSet.getBoolean(column.name());
+                return resultSet.getBoolean(columnIndex);
             }
             case Byte -> {
-                return resultSet.getByte(column.name());
+                return resultSet.getByte(columnIndex);
             }
             case Char -> {
-                return resultSet.getString(column.name()).charAt(0);
+                String value = resultSet.getString(columnIndex);
+                return value != null && !value.isEmpty() ? value.charAt(0) : null;
             }
             case Double -> {
-                return resultSet.getDouble(column.name());
+                return resultSet.getDouble(columnIndex);
             }
             case Float -> {
-                return resultSet.getFloat(column.name());
+                return resultSet.getFloat(columnIndex);
             }
             case Int -> {
-                return resultSet.getInt(column.name());
+                return resultSet.getInt(columnIndex);
             }
             case Long -> {
-                return resultSet.getLong(column.name());
+                return resultSet.getLong(columnIndex);
             }
             case Short -> {
-                return resultSet.getShort(column.name());
+                return resultSet.getShort(columnIndex);
             }
             case String -> {
-                return resultSet.getString(column.name());
+                return resultSet.getString(columnIndex);
             }
             case Timestamp -> {
-                return resultSet.getTimestamp(column.name());
+                return resultSet.getTimestamp(columnIndex);
             }
             case Unknown -> {
-                AbstractType abstractType = this.abstractDatabase.getDataType(type.getTypeName());
-                if (abstractType != null) {
-                    return abstractType.getResult(resultSet.getString(column.name()), type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments() : null);
-                } else {
-                    try {
-                        Class<?> targetClass = Class.forName(type.getTypeName());
-                        if (targetClass.isAssignableFrom(Serializable.class)) {
-                            ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(resultSet.getString(column.name()))));
-
-                            Object object = objectInputStream.readObject();
-                            objectInputStream.close();
-
-                            return object;
-                        }
-                    } catch (Exception ignored) {
-                    }
-                }
+                return this.readCustom(resultSet, columnIndex, columnCodec, binary);
             }
         }
 
-        this.abstractDatabase.logger.severe(String.format("Unknown DataType to handle: %1$s", type.getTypeName()));
+        return null;
+    }
+
+    /**
+     * Reads the value of a custom type column, saved as text unless the dialect maps the type natively
+     */
+    Object readCustom(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        if (binary) return this.deserialize(resultSet.getBinaryStream(columnIndex), columnCodec);
+        return this.decode(resultSet.getString(columnIndex), columnCodec);
+    }
+
+    /**
+     * Converts the text saved in the database back into the value of a custom type column
+     *
+     * @return The value or null when the text can't be handled
+     */
+    Object decode(String text, ColumnCodec columnCodec) {
+        AbstractType abstractType = columnCodec.getAbstractType();
+        if (abstractType != null) return abstractType.getResult(text, columnCodec.getGenericTypes());
+
+        try {
+            Type type = columnCodec.getType();
+            Class<?> targetClass = type instanceof ParameterizedType parameterizedType ? (Class<?>) parameterizedType.getRawType() : type instanceof Class<?> clazz ? clazz : Class.forName(type.getTypeName());
+
+            // Serializable types or types like Object that can hold one
+            if (text != null && (Serializable.class.isAssignableFrom(targetClass) || targetClass.isAssignableFrom(Serializable.class))) {
+                ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(text)));
+
+                Object object = objectInputStream.readObject();
+                objectInputStream.close();
+
+                return object;
+            }
+        } catch (Exception ignored) {
+        }
 
+        this.abstractDatabase.logger.severe(String.format("Unknown DataType to handle: %1$s", columnCodec.getType().getTypeName()));
         return null;
     }
 
+    /**
+     * Fetches the value of one column of the row with the given primary key, used by lazy columns skipped by a projection
+     */
+    Object loadColumn(TableCache tableCache, int index, Object primaryKey) throws SQLException, IOException {
+        Connection connection = this.getConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getSelectByPrimaryKey(index));
+            this.set(1, preparedStatement, primaryKey, tableCache.getCodec(this, tableCache.getPrimaryKey()));
+
+            resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next()) return null;
+
+            ColumnCodec columnCodec = tableCache.getCodecs(this)[index];
+            return this.getValue(resultSet, 1, columnCodec, this.isBinaryColumn(resultSet, 1, columnCodec));
+        } finally {
+            this.closeConnection(connection, preparedStatement, resultSet);
+        }
+    }
+
     protected int fillWhereQueue(TableCache tableCache, Helper loadHelper, PreparedStatement preparedStatement) throws SQLException, IOException {
         return this.fillWhereQueue(1, tableCache, loadHelper, preparedStatement);
     }
@@ -119,7 +619,7 @@ public abstract class DriverHandler extends Handler {
             if (column == null) throw new NoTableColumnException(columnName, tableCache);
             Object columnValue = loadHelper.filter.get(columnName);
 
-            this.set(index++, preparedStatement, columnValue, tableCache.getType(column));
+            this.set(index++, preparedStatement, columnValue, tableCache.getCodec(this, column));
         }
 
         for (String columnName : loadHelper.length.keySet()) {
@@ -127,7 +627,7 @@ public abstract class DriverHandler extends Handler {
             if (column == null) throw new NoTableColumnException(columnName, tableCache);
             Integer columnValue = loadHelper.length.get(columnName);
 
-            this.set(index++, preparedStatement, columnValue, Integer.class);
+            this.set(index++, preparedStatement, columnValue, DriverHandler.LENGTH_CODEC);
         }
 
         for (String columnName : loadHelper.between.keySet()) {
@@ -135,13 +635,463 @@ public abstract class DriverHandler extends Handler {
             if (column == null) throw new NoTableColumnException(columnName, tableCache);
             List<Object> columnValue = loadHelper.between.get(columnName);
 
-            this.set(index++, preparedStatement, columnValue.get(0), tableCache.getType(column));
-            this.set(index++, preparedStatement, columnValue.get(1), tableCache.getType(column));
+            this.set(index++, preparedStatement, columnValue.get(0), tableCache.getCodec(this, column));
+            this.set(index++, preparedStatement, columnValue.get(1), tableCache.getCodec(this, column));
+        }
+
+        if (loadHelper.afterValue != null) {
+            Column column = tableCache.getColumn(loadHelper.afterColumn);
+            if (column == null) throw new NoTableColumnException(loadHelper.afterColumn, tableCache);
+
+            this.set(index++, preparedStatement, loadHelper.afterValue, tableCache.getCodec(this, column));
         }
 
         return index;
     }
 
+    /**
+     * Builds the precompiled statements of the table for the dialect of this handler
+     *
+     * @param tableCache The table
+     * @return QueryTemplates
+     */
+    abstract QueryTemplates createTemplates(TableCache tableCache);
+
+    public <T extends Row> T loadOne(Class<T> row, Helper helper) throws IllegalArgumentException, IllegalAccessException, InstantiationException, SecurityException, SQLException, IOException {
+        TableCache tableCache = TableCache.getCache(row, this);
+        RowCache rowCache = this.getRowCache(tableCache);
+
+        Object primaryKey = rowCache != null ? this.getPrimaryKeyLookup(tableCache, helper) : null;
+        if (primaryKey == null) return super.loadOne(row, helper);
+
+        long generation = rowCache.getGeneration(); // Taken before the load, so a concurrent write keeps the loaded row out of the cache
+        T cached = rowCache.get(row, primaryKey);
+        if (cached != null) return cached;
+
+        T loaded = super.loadOne(row, helper);
+        if (loaded != null) rowCache.put(loaded, generation);
+
+        return loaded;
+    }
+
+    /**
+     * Wherever the row is inside the row cache of its table, which means it exists in the database
+     */
+    boolean isCached(TableCache tableCache, Row row) {
+        RowCache rowCache = this.getRowCache(tableCache);
+        return rowCache != null && rowCache.contains(tableCache.get(row, tableCache.getPrimaryKey()));
+    }
+
+    /**
+     * The row cache of the table or null when it's disabled or bypassed by the open transaction of this thread
+     */
+    RowCache getRowCache(TableCache tableCache) {
+        return this.transaction.get() == null ? tableCache.getRowCache(this) : null;
+    }
+
+    /**
+     * The key of the query in the query cache or null when it's disabled or bypassed by the open transaction of this thread
+     */
+    QueryCache.QueryKey getQueryKey(TableCache tableCache, boolean count, Helper helper) {
+        return this.queryCache != null && this.transaction.get() == null ? this.queryCache.key(tableCache, count, helper) : null;
+    }
+
+    /**
+     * Invalidates the cached queries of the table after rows were written into it
+     */
+    void invalidate(TableCache tableCache) {
+        Transaction transaction = this.transaction.get();
+        if (transaction != null) {
+            transaction.written(tableCache); // Not visible for others until the commit
+            return;
+        }
+
+        List<Runnable> pendingInvalidations = this.pendingInvalidations.get();
+        if (pendingInvalidations != null) pendingInvalidations.add(() -> this.invalidate(tableCache)); // Likewise until the task is committed
+        else if (this.queryCache != null) this.queryCache.invalidate(tableCache.getTable());
+    }
+
+    /**
+     * The invalidations deferred until the running inTransaction task is committed
+     *
+     * @return The list or null when the invalidations happen at once or at the commit of the open transaction
+     */
+    private List<Runnable> getPendingInvalidations() {
+        return this.transaction.get() == null ? this.pendingInvalidations.get() : null;
+    }
+
+    /**
+     * Removes the rows matching the helper out of the row cache of the table, after they were changed or removed
+     */
+    void invalidate(TableCache tableCache, Helper helper) {
+        List<Runnable> pendingInvalidations = this.getPendingInvalidations();
+        if (pendingInvalidations != null) {
+            Helper copy = helper != null ? new Helper(helper) : null;
+            pendingInvalidations.add(() -> this.invalidate(tableCache, copy));
+            return;
+        }
+
+        this.invalidate(tableCache);
+
+        RowCache rowCache = this.getRowCache(tableCache);
+        if (rowCache == null) return;
+
+        Object primaryKey = this.getPrimaryKeyLookup(tableCache, helper);
+        if (primaryKey != null) rowCache.invalidate(primaryKey);
+        else rowCache.invalidateAll();
+    }
+
+    /**
+     * Removes the given rows out of the row cache of the table, after they were changed or removed by their primary key
+     */
+    void invalidate(TableCache tableCache, List<Row> tableRows) {
+        List<Runnable> pendingInvalidations = this.getPendingInvalidations();
+        if (pendingInvalidations != null) {
+            List<Row> rows = new ArrayList<>(tableRows);
+            pendingInvalidations.add(() -> this.invalidate(tableCache, rows));
+            return;
+        }
+
+        this.invalidate(tableCache);
+
+        RowCache rowCache = this.getRowCache(tableCache);
+        if (rowCache == null) return;
+
+        for (Row tableRow : tableRows) rowCache.invalidate(tableCache.get(tableRow, tableCache.getPrimaryKey()));
+    }
+
+    /**
+     * Invalidates all cached queries and rows of the table
+     */
+    void invalidateAll(TableCache tableCache) {
+        if (this.queryCache != null) this.queryCache.invalidate(tableCache.getTable());
+
+        RowCache rowCache = tableCache.getRowCache(this);
+        if (rowCache != null) rowCache.invalidateAll();
+    }
+
+    /**
+     * Returns the primary key when the helper matches exactly one row by its primary key and nothing else
+     *
+     * @return The primary key or null when the helper is any other query
+     */
+    Object getPrimaryKeyLookup(TableCache tableCache, Helper helper) {
+        if (helper == null || !tableCache.hasPrimaryKey() || helper.filter.size() != 1) return null;
+        if (!helper.length.isEmpty() || !helper.between.isEmpty() || !helper.columns.isEmpty() || helper.afterValue != null || helper.offset > 0) return null;
+
+        String primaryKey = tableCache.getName(tableCache.getPrimaryKey());
+        if (helper.filterType.get(primaryKey) != Helper.Filter.Equals) return null;
+
+        return helper.filter.get(primaryKey);
+    }
+
+    public boolean update(Row row) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        if (!row.isLoaded) return false;
+
+        TableCache tableCache = TableCache.getCache(row.getClass(), this);
+        if (!tableCache.hasPrimaryKey() || row.loadedColumns != null) return super.update(row);
+
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+        Column primaryKey = tableCache.getPrimaryKey();
+
+        Connection connection = this.getConnection();
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = connection.prepareStatement(queryTemplates.getUpdateByPrimaryKey());
+
+            int index = 1;
+            for (Column column : queryTemplates.getUpdateColumns()) {
+                this.set(index++, preparedStatement, tableCache.get(row, column), tableCache.getCodec(this, column));
+            }
+
+            this.set(index, preparedStatement, tableCache.get(row, primaryKey), tableCache.getCodec(this, primaryKey));
+            boolean updated = preparedStatement.executeUpdate() > 0;
+            this.invalidate(tableCache, Collections.singletonList(row)); // Not put, concurrent updates of the row could be cached out of order
+
+            return updated;
+        } finally {
+            this.closeConnection(connection, preparedStatement, null);
+        }
+    }
+
+    public <T extends Row> void upsert(List<T> entries) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        if (entries.isEmpty()) return;
+
+        Map<Class<? extends Row>, List<Row>> tableEntryList = groupByTable(entries);
+        Connection connection = this.getConnection();
+
+        try {
+            this.inTransaction(connection, transaction -> { // All chunks in one transaction
+                for (Map.Entry<Class<? extends Row>, List<Row>> entry : tableEntryList.entrySet()) {
+                    this.upsert(TableCache.getCache(entry.getKey(), this), entry.getValue(), transaction);
+                }
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
+        }
+    }
+
+    /**
+     * Upserts the rows of one table with multi row statements of up to batchSize rows each.
+     * Rows of tables without primary and unique key can't conflict and are just inserted.
+     * Rows without a value for a generated conflict key are new and inserted the usual way, which reads the generated keys back
+     */
+    protected void upsert(TableCache tableCache, List<Row> tableRows, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+
+        if (queryTemplates.isConflictGenerated()) {
+            Column conflictColumn = queryTemplates.getConflictColumn();
+
+            List<Row> newRows = new ArrayList<>();
+            List<Row> keyedRows = new ArrayList<>(tableRows.size());
+
+            for (Row tableRow : tableRows) {
+                if (DriverHandler.isUnset(tableCache.get(tableRow, conflictColumn))) newRows.add(tableRow);
+                else keyedRows.add(tableRow);
+            }
+
+            if (!newRows.isEmpty()) {
+                this.insert(tableCache, newRows, connection);
+                if (keyedRows.isEmpty()) return;
+
+                tableRows = keyedRows;
+            }
+        }
+
+        List<Column> upsertColumns = queryTemplates.getUpsertColumns();
+        String clause = queryTemplates.getConflictKey() != null ? this.getUpsertClause(queryTemplates) : "";
+
+        ColumnCodec[] columnCodecs = new ColumnCodec[upsertColumns.size()];
+        for (int i = 0; i < columnCodecs.length; i++) columnCodecs[i] = tableCache.getCodec(this, upsertColumns.get(i));
+
+        int chunkSize = Math.max(1, Math.min(this.batchSize, this.getMaxParameters() / Math.max(1, columnCodecs.length)));
+
+        PreparedStatement preparedStatement = null;
+        int preparedRows = 0;
+
+        try {
+            for (int offset = 0; offset < tableRows.size(); offset += chunkSize) {
+                List<Row> chunk = tableRows.subList(offset, Math.min(offset + chunkSize, tableRows.size()));
+
+                if (chunk.size() != preparedRows) { // Only the last chunk needs an own statement
+                    this.closeConnection(null, preparedStatement, null);
+
+                    preparedStatement = connection.prepareStatement(queryTemplates.getUpsert(chunk.size(), clause));
+                    preparedRows = chunk.size();
+                }
+
+                int index = 1;
+                for (Row tableRow : chunk) {
+                    for (int i = 0; i < columnCodecs.length; i++) {
+                        this.set(index++, preparedStatement, tableCache.get(tableRow, upsertColumns.get(i)), columnCodecs[i]);
+                    }
+                }
+
+                preparedStatement.executeUpdate();
+                for (Row tableRow : chunk) tableRow.isLoaded = true;
+            }
+        } finally {
+            this.closeConnection(null, preparedStatement, null);
+
+            if (tableCache.hasPrimaryKey()) this.invalidate(tableCache, tableRows);
+            else this.invalidate(tableCache, (Helper) null);
+        }
+    }
+
+    /**
+     * Wherever the value of a generated key was never set: null or zero, the default of primitive number fields
+     */
+    static boolean isUnset(Object key) {
+        return key == null || key instanceof Number number && number.longValue() == 0;
+    }
+
+    /**
+     * Inserts the rows of one table inside the connection, writing the generated primary keys back into the rows
+     */
+    protected abstract void insert(TableCache tableCache, List<Row> tableRows, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException;
+
+    /**
+     * The conflict handling appended to the upsert statement, overwriting all non-key columns with the new values
+     */
+    String getUpsertClause(QueryTemplates queryTemplates) {
+        List<String> updateNames = queryTemplates.getUpsertUpdateNames();
+        if (updateNames.isEmpty()) return "ON CONFLICT (" + queryTemplates.getConflictKey() + ") DO NOTHING";
+
+        StringBuilder stringBuilder = new StringBuilder("ON CONFLICT (").append(queryTemplates.getConflictKey()).append(") DO UPDATE SET ");
+        for (int i = 0; i < updateNames.size(); i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(updateNames.get(i)).append(" = excluded.").append(updateNames.get(i));
+        }
+
+        return stringBuilder.toString();
+    }
+
+    public <T extends Row> int update(List<T> entries, List<String> columns) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        if (entries.isEmpty()) return 0;
+
+        Map<Class<? extends Row>, List<Row>> tableEntryList = groupByTable(entries);
+        Connection connection = this.getConnection();
+        int[] updated = new int[1];
+
+        try {
+            this.inTransaction(connection, transaction -> { // All batches in one transaction
+                for (Map.Entry<Class<? extends Row>, List<Row>> entry : tableEntryList.entrySet()) {
+                    updated[0] += this.update(TableCache.getCache(entry.getKey(), this), entry.getValue(), columns, transaction);
+                }
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
+        }
+
+        return updated[0];
+    }
+
+    /**
+     * Updates the rows of one table by their primary key with JDBC batches of up to batchSize rows each
+     *
+     * @param columns The names of the updated columns or null for the loaded columns of each row
+     */
+    protected int update(TableCache tableCache, List<Row> tableRows, List<String> columns, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        if (!tableCache.hasPrimaryKey()) return 0;
+
+        // Rows loaded with different projections update different columns
+        Map<List<String>, List<Row>> columnEntryList = new LinkedHashMap<>();
+        for (Row tableRow : tableRows) {
+            if (tableRow.isLoaded) columnEntryList.computeIfAbsent(columns != null ? columns : tableRow.loadedColumns, key -> new ArrayList<>()).add(tableRow);
+        }
+
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+        Column primaryKey = tableCache.getPrimaryKey();
+        ColumnCodec primaryCodec = tableCache.getCodec(this, primaryKey);
+        int updated = 0;
+
+        try {
+            for (Map.Entry<List<String>, List<Row>> entry : columnEntryList.entrySet()) {
+                List<Column> updateColumns = queryTemplates.getUpdateColumns();
+                if (entry.getKey() != null) {
+                    updateColumns = new ArrayList<>();
+                    for (Column column : queryTemplates.getUpdateColumns()) {
+                        if (entry.getKey().contains(tableCache.getName(column))) updateColumns.add(column);
+                    }
+                }
+
+                if (updateColumns.isEmpty()) continue;
+
+                ColumnCodec[] columnCodecs = new ColumnCodec[updateColumns.size()];
+                for (int i = 0; i < columnCodecs.length; i++) columnCodecs[i] = tableCache.getCodec(this, updateColumns.get(i));
+
+                PreparedStatement preparedStatement = connection.prepareStatement(queryTemplates.getUpdateByPrimaryKey(updateColumns));
+
+                try {
+                    int pending = 0;
+
+                    for (Row tableRow : entry.getValue()) {
+                        int index = 1;
+                        for (int i = 0; i < columnCodecs.length; i++) {
+                            this.set(index++, preparedStatement, tableCache.get(tableRow, updateColumns.get(i)), columnCodecs[i]);
+                        }
+
+                        this.set(index, preparedStatement, tableCache.get(tableRow, primaryKey), primaryCodec);
+                        preparedStatement.addBatch();
+
+                        if (++pending == this.batchSize) {
+                            updated += countUpdated(preparedStatement.executeBatch());
+                            pending = 0;
+                        }
+                    }
+
+                    if (pending > 0) updated += countUpdated(preparedStatement.executeBatch());
+                } finally {
+                    this.closeConnection(null, preparedStatement, null);
+                }
+            }
+        } finally {
+            this.invalidate(tableCache, tableRows);
+        }
+
+        return updated;
+    }
+
+    public <T extends Row> int remove(List<T> entries) throws SQLException, IOException, IllegalArgumentException, IllegalAccessException {
+        if (entries.isEmpty()) return 0;
+
+        Map<Class<? extends Row>, List<Row>> tableEntryList = groupByTable(entries);
+        Connection connection = this.getConnection();
+        int[] removed = new int[1];
+
+        try {
+            this.inTransaction(connection, transaction -> {
+                for (Map.Entry<Class<? extends Row>, List<Row>> entry : tableEntryList.entrySet()) {
+                    removed[0] += this.remove(TableCache.getCache(entry.getKey(), this), entry.getValue(), transaction);
+                }
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
+        }
+
+        return removed[0];
+    }
+
+    /**
+     * Removes the rows of one table with DELETE ... WHERE primary IN (...) statements of up to batchSize keys each
+     */
+    protected int remove(TableCache tableCache, List<Row> tableRows, Connection connection) throws SQLException, IOException {
+        if (!tableCache.hasPrimaryKey()) return 0;
+
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+        Column primaryKey = tableCache.getPrimaryKey();
+        ColumnCodec primaryCodec = tableCache.getCodec(this, primaryKey);
+
+        int chunkSize = Math.max(1, Math.min(this.batchSize, this.getMaxParameters()));
+        int removed = 0;
+
+        PreparedStatement preparedStatement = null;
+        int preparedSize = 0;
+
+        try {
+            for (int offset = 0; offset < tableRows.size(); offset += chunkSize) {
+                int size = Math.min(chunkSize, tableRows.size() - offset);
+
+                if (size != preparedSize) { // Only the last chunk needs its own statement
+                    this.closeConnection(null, preparedStatement, null);
+                    preparedStatement = connection.prepareStatement(queryTemplates.getDeleteByPrimaryKeys(size));
+                    preparedSize = size;
+                }
+
+                for (int i = 0; i < size; i++) {
+                    this.set(i + 1, preparedStatement, tableCache.get(tableRows.get(offset + i), primaryKey), primaryCodec);
+                }
+
+                removed += preparedStatement.executeUpdate();
+            }
+        } finally {
+            this.closeConnection(null, preparedStatement, null);
+            this.invalidate(tableCache, tableRows);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Sums the update counts of an executed batch, counting statements without a known count as one row
+     */
+    static int countUpdated(int[] results) {
+        int updated = 0;
+
+        for (int result : results) {
+            if (result > 0) updated += result;
+            else if (result == Statement.SUCCESS_NO_INFO) updated++;
+        }
+
+        return updated;
+    }
+
+    /**
+     * The maximum number of bind parameters one statement of the database can have
+     */
+    abstract int getMaxParameters();
+
     abstract void createTable(TableCache tableCache) throws SQLException;
 
     protected void updateTable(TableCache tableCache) throws SQLException {
@@ -173,7 +1123,20 @@ public abstract class DriverHandler extends Handler {
 
     abstract void delColumn(TableCache tableCache, String columnName) throws SQLException;
 
-    abstract String toDatabaseType(Type type);
+    abstract String toDatabaseType(ColumnCodec columnCodec);
+
+    /**
+     * A database operation that runs on the given connection
+     */
+    @FunctionalInterface
+    interface ConnectionTask {
+        void run(Connection connection) throws SQLException, IOException, IllegalAccessException;
+    }
+
+    private boolean isPinned(Connection connection) {
+        Transaction transaction = this.transaction.get();
+        return transaction != null && !transaction.isClosed() && transaction.getConnection() == connection;
+    }
 
     public void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
         try {
@@ -185,7 +1148,7 @@ public abstract class DriverHandler extends Handler {
         } catch (SQLException ignored) {
         }
         try {
-            if (connection != null) connection.close();
+            if (connection != null && !this.isPinned(connection)) connection.close();
         } catch (SQLException ignored) {
         }
     }
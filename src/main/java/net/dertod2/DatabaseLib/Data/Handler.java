@@ -9,6 +9,8 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * The abstract handler class for all implementations
@@ -17,11 +19,38 @@ public abstract class Handler {
     protected final AbstractDatabase abstractDatabase;
     protected final UUID handlerUniqueId;
 
+    protected int batchSize = 500;
+    protected int fetchSize = 1000;
+
     public Handler(AbstractDatabase abstractDatabase) {
         this.abstractDatabase = abstractDatabase;
         this.handlerUniqueId = UUID.randomUUID();
     }
 
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Sets how many rows are written with one statement by the list operations like insert(List)
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("The batch size must be at least 1");
+        this.batchSize = batchSize;
+    }
+
+    public int getFetchSize() {
+        return this.fetchSize;
+    }
+
+    /**
+     * Sets how many rows stream(Class, Helper) fetches at once out of the database cursor
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) throw new IllegalArgumentException("The fetch size must be at least 1");
+        this.fetchSize = fetchSize;
+    }
+
     /**
      * Inserts a single row inside the database
      *
@@ -36,6 +65,23 @@ public abstract class Handler {
      */
     public abstract <T extends Row> void insert(List<T> entries) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException;
 
+    /**
+     * Inserts the row or updates the existing row with the same primary key, or the same first unique key when the table has no primary key.
+     * Needs only one statement, unlike checking exist(Row) before inserting or updating
+     *
+     * @param row The row to insert or update
+     */
+    public void upsert(Row row) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        this.upsert(ImmutableList.of(row));
+    }
+
+    /**
+     * Inserts or updates many rows at once, with one statement per chunk of rows
+     *
+     * @param entries A list of all entries that should be inserted or updated
+     */
+    public abstract <T extends Row> void upsert(List<T> entries) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException;
+
     /**
      * Removes the given row out of the database. Works only for tables with primary keys
      *
@@ -46,12 +92,20 @@ public abstract class Handler {
         TableCache tableCache = TableCache.getCache(row.getClass(), this);
 
         if (tableCache.hasPrimaryKey()) {
-            return this.remove(row.getClass(), new Helper().filter(tableCache.getName(tableCache.getPrimaryKey()), row.getColumn(tableCache.getPrimaryKey())));
+            return this.remove(row.getClass(), new Helper().filter(tableCache.getName(tableCache.getPrimaryKey()), tableCache.get(row, tableCache.getPrimaryKey())));
         }
 
         return false;
     }
 
+    /**
+     * Removes many rows at once by their primary keys. Rows of tables without primary key are ignored
+     *
+     * @param entries The rows that should be removed
+     * @return The number of removed rows
+     */
+    public abstract <T extends Row> int remove(List<T> entries) throws SQLException, IOException, IllegalArgumentException, IllegalAccessException;
+
     /**
      * Removes all matching rows (by the filter) out of the database table given with the row
      *
@@ -74,16 +128,36 @@ public abstract class Handler {
 
         Helper helper = new Helper();
         if (tableCache.hasPrimaryKey()) {
-            helper.filter(tableCache.getName(tableCache.getPrimaryKey()), row.getColumn(tableCache.getPrimaryKey()));
+            helper.filter(tableCache.getName(tableCache.getPrimaryKey()), tableCache.get(row, tableCache.getPrimaryKey()));
         } else if (tableCache.hasUniqueKeys()) {
             for (Column column : tableCache.getUniqueKeys()) {
-                helper.filter(tableCache.getName(column), row.getColumn(column));
+                helper.filter(tableCache.getName(column), tableCache.get(row, column));
             }
         }
 
         return this.update(row, helper);
     }
 
+    /**
+     * Updates many rows at once by their primary keys. Rows loaded with only some columns update just these columns.
+     * Rows of tables without primary key and rows that were not loaded are ignored
+     *
+     * @param entries The database loaded elements with updated data
+     * @return The number of updated rows
+     */
+    public <T extends Row> int update(List<T> entries) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        return this.update(entries, null);
+    }
+
+    /**
+     * Updates only the given columns of many rows at once by their primary keys
+     *
+     * @param entries The database loaded elements with updated data
+     * @param columns The names of the updated columns or null for all columns
+     * @return The number of updated rows
+     */
+    public abstract <T extends Row> int update(List<T> entries, List<String> columns) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException;
+
     /**
      * Updates all matching rows inside a database table given by row and the filter
      *
@@ -92,7 +166,7 @@ public abstract class Handler {
      * @return Wherever the execution was successful or not.
      */
     public boolean update(Row row, Helper helper) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
-        return this.update(row, helper, ImmutableList.of());
+        return this.update(row, helper, row.loadedColumns != null ? row.loadedColumns : ImmutableList.of());
     }
 
     /**
@@ -184,6 +258,45 @@ public abstract class Handler {
      */
     public abstract <T extends Row> List<T> load(Class<T> row, Helper helper) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException, SecurityException, IOException;
 
+    /**
+     * Streams all matching rows by the filter out of the given database table. Rows are read over a database cursor and
+     * created only when the stream reaches them, so even huge tables don't need to fit into memory.
+     * The stream holds a database connection until it's closed - use it inside a try-with-resources block.
+     * Warning: This method tries to create a new instance over an empty constructor
+     *
+     * @param row    The Table Information
+     * @param helper The helper to order and sort out matching elements
+     * @return A lazy stream of all matching elements of the table.
+     */
+    public abstract <T extends Row> Stream<T> stream(Class<T> row, Helper helper) throws SQLException, IOException;
+
+    /**
+     * Passes all matching rows by the filter one after another to the consumer without loading the whole table into memory
+     *
+     * @param row      The Table Information
+     * @param helper   The helper to order and sort out matching elements
+     * @param consumer Receives each row
+     */
+    public <T extends Row> void forEach(Class<T> row, Helper helper, Consumer<? super T> consumer) throws SQLException, IOException {
+        try (Stream<T> stream = this.stream(row, helper)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /**
+     * Loads all matching rows page by page with keyset pagination over the given column. Each page is one load seeking behind
+     * the last row of the previous page, so deep pages cost the same as the first one.
+     *
+     * @param row      The Table Information
+     * @param helper   The helper to sort out matching elements, a helper with {@link Helper#after(String, Object)} continues at its position
+     * @param column   A unique column to page over, like the primary key
+     * @param pageSize The maximum number of rows per page
+     * @return An iterator over the pages
+     */
+    public <T extends Row> PageIterator<T> pages(Class<T> row, Helper helper, String column, int pageSize) {
+        return new PageIterator<>(this, row, helper != null ? helper : new Helper(), column, pageSize);
+    }
+
     /**
      * Checks if the given element exists inside the database.
      * Works only for tables with primary keys and/or unique keys
@@ -202,6 +315,28 @@ public abstract class Handler {
      */
     public abstract <T extends Row> long count(Class<T> row, Helper helper) throws SQLException, IllegalArgumentException, IOException;
 
+    /**
+     * Starts a transaction that pins one connection for all following operations of this thread until it's closed
+     *
+     * @return The open transaction, must be closed
+     */
+    public abstract Transaction beginTransaction() throws SQLException;
+
+    /**
+     * Runs the work in one transaction, so all of its operations share one commit. Rolls back when the work throws.
+     *
+     * @param work The operations on this handler
+     * @return The result of the work
+     */
+    public <R> R inTransaction(Transaction.Work<R> work) throws Exception {
+        try (Transaction transaction = this.beginTransaction()) {
+            R result = work.run();
+            transaction.commit();
+
+            return result;
+        }
+    }
+
     /**
      * Updates the table in the database to match the layout of the class
      *
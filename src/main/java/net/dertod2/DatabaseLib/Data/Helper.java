@@ -7,13 +7,16 @@ import net.dertod2.DatabaseLib.Exceptions.FilterNotAllowedException;
 import java.sql.Date;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class Helper {
     protected final Map<String, List<Object>> between = new HashMap<>();
-    protected final Map<String, Sort> columnSorter = new HashMap<>();
+    protected final Map<String, Sort> columnSorter = new LinkedHashMap<>();
     protected int limit = 0;
     protected int offset = 0;
     protected final Map<String, Integer> length = new HashMap<>();
@@ -21,6 +24,30 @@ public class Helper {
     protected final Map<String, Object> filter = new HashMap<>();
     protected final Map<String, Filter> filterType = new HashMap<>();
     protected final List<String> groupBy = new ArrayList<>();
+    protected final List<String> columns = new ArrayList<>();
+    protected String afterColumn;
+    protected Object afterValue;
+
+    public Helper() {
+    }
+
+    /**
+     * Copies the complete state of the helper
+     */
+    Helper(Helper helper) {
+        this.between.putAll(helper.between);
+        this.columnSorter.putAll(helper.columnSorter);
+        this.limit = helper.limit;
+        this.offset = helper.offset;
+        this.length.putAll(helper.length);
+        this.lengthType.putAll(helper.lengthType);
+        this.filter.putAll(helper.filter);
+        this.filterType.putAll(helper.filterType);
+        this.groupBy.addAll(helper.groupBy);
+        this.columns.addAll(helper.columns);
+        this.afterColumn = helper.afterColumn;
+        this.afterValue = helper.afterValue;
+    }
 
     public Helper limit(int limit) {
         this.limit = limit;
@@ -48,6 +75,38 @@ public class Helper {
         return this;
     }
 
+    /**
+     * Keyset pagination: only rows behind the given value of the column in sort order are matched.
+     * Unlike an offset, the database seeks over the index of the column directly to the page, so every page costs the same.
+     * The column must be unique (like the primary key) and is used as first sort order, ascending when not sorted otherwise.
+     *
+     * @param field     The column to seek on
+     * @param lastValue The value of the column in the last row of the previous page or null for the first page
+     */
+    public Helper after(String field, Object lastValue) {
+        Map<String, Sort> otherSorts = new LinkedHashMap<>(this.columnSorter);
+        Sort sortOrder = otherSorts.remove(field);
+
+        this.columnSorter.clear();
+        this.columnSorter.put(field, sortOrder != null ? sortOrder : Sort.ASC);
+        this.columnSorter.putAll(otherSorts);
+
+        this.afterColumn = field;
+        this.afterValue = lastValue;
+        return this;
+    }
+
+    /**
+     * Loads only the given columns, all other fields keep the value of the empty constructor.
+     * The primary key is always loaded. A full update of such a row only writes the loaded columns.
+     *
+     * @param fields The columns to load
+     */
+    public Helper columns(String... fields) {
+        this.columns.addAll(Arrays.asList(fields));
+        return this;
+    }
+
     public Helper length(String field, int length) {
         return this.length(field, length, Filter.Equals);
     }
@@ -94,7 +153,7 @@ public class Helper {
     }
 
     public String buildWhereQueue(DatabaseType databaseType) {
-        if (this.filter.isEmpty() && this.between.isEmpty()) return "";
+        if (this.filter.isEmpty() && this.length.isEmpty() && this.between.isEmpty() && this.afterValue == null) return "";
         StringBuilder stringBuilder = new StringBuilder();
 
         // Build Where Query
@@ -121,6 +180,13 @@ public class Helper {
             stringBuilder.append(" BETWEEN ? AND ?");
         }
 
+        if (this.afterValue != null) {
+            if (!stringBuilder.isEmpty()) stringBuilder.append(" AND ");
+            stringBuilder.append("`").append(this.afterColumn).append("`");
+
+            stringBuilder.append(this.columnSorter.get(this.afterColumn) == Sort.DESC ? " < ?" : " > ?");
+        }
+
         stringBuilder.insert(0, " WHERE ");
         if (isPostgres) {
             return stringBuilder.toString().replace("`", "");
@@ -130,6 +196,26 @@ public class Helper {
 
     }
 
+    /**
+     * Two helpers are equal when they build the same query with the same values. Only the order of the sorts matters.
+     */
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (!(object instanceof Helper helper)) return false;
+
+        return this.limit == helper.limit && this.offset == helper.offset &&
+                this.filter.equals(helper.filter) && this.filterType.equals(helper.filterType) &&
+                this.length.equals(helper.length) && this.lengthType.equals(helper.lengthType) &&
+                this.between.equals(helper.between) && this.groupBy.equals(helper.groupBy) && this.columns.equals(helper.columns) &&
+                new ArrayList<>(this.columnSorter.entrySet()).equals(new ArrayList<>(helper.columnSorter.entrySet())) &&
+                Objects.equals(this.afterColumn, helper.afterColumn) && Objects.equals(this.afterValue, helper.afterValue);
+    }
+
+    public int hashCode() {
+        return Objects.hash(this.limit, this.offset, this.filter, this.filterType, this.length, this.lengthType, this.between,
+                this.groupBy, this.columns, new ArrayList<>(this.columnSorter.entrySet()), this.afterColumn, this.afterValue);
+    }
+
     public enum Sort {
         DESC("DESC"),
         ASC("ASC");
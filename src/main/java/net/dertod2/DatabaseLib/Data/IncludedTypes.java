@@ -2,6 +2,8 @@ package net.dertod2.DatabaseLib.Data;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Contains all included types in this database handler plugin
@@ -20,6 +22,7 @@ public enum IncludedTypes {
     Unknown(null, null);
 
     private static IncludedTypes[] values;
+    private static final Map<String, IncludedTypes> resolved = new ConcurrentHashMap<>(); // Type names are resolved only once
 
     static {
         List<IncludedTypes> list = new ArrayList<>();
@@ -54,6 +57,16 @@ public enum IncludedTypes {
     public static IncludedTypes getByObject(String object) {
         if (object == null) return IncludedTypes.Unknown;
 
+        IncludedTypes includedType = IncludedTypes.resolved.get(object);
+        if (includedType != null) return includedType;
+
+        includedType = IncludedTypes.resolve(object);
+        IncludedTypes.resolved.put(object, includedType);
+
+        return includedType;
+    }
+
+    private static IncludedTypes resolve(String object) {
         if (!object.contains(".")) object = RowHelper.getPrimitiveObject(object);
         for (IncludedTypes primitiveWrapper : values) {
             if (primitiveWrapper.objectIdentifier.equals(object)) {
@@ -0,0 +1,137 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Exceptions.LazyLoadException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A column field that is only decoded or loaded when it's accessed the first time. Use it as field type for heavy columns like big lists or maps:
+ * <pre>
+ * &#64;Column(name = "history")
+ * private Lazy&lt;List&lt;String&gt;&gt; history = new Lazy&lt;&gt;();
+ * </pre>
+ * Loaded rows keep the raw database text until {@link #get()} is called. An untouched value is written back as it was read, without decoding it.
+ * When the column was skipped by a projection, the value is fetched by the primary key on first access.
+ */
+public class Lazy<T> {
+    private final ReentrantLock lock = new ReentrantLock(); // Not synchronized: the loader may query the database and must not pin virtual threads
+
+    private T value;
+    private String raw;
+    private byte[] binary;
+    private Loader<T> loader;
+
+    /**
+     * Creates an empty value
+     */
+    public Lazy() {
+    }
+
+    /**
+     * Creates an already loaded value
+     */
+    public Lazy(T value) {
+        this.value = value;
+    }
+
+    Lazy(String raw, Loader<T> loader) {
+        this.raw = raw;
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a value deserialized out of the bytes of a binary column on first access
+     */
+    static <T> Lazy<T> binary(byte[] binary, Loader<T> loader) {
+        Lazy<T> lazy = new Lazy<>(null, loader);
+        lazy.binary = binary;
+
+        return lazy;
+    }
+
+    /**
+     * Returns the value, decoding or loading it when this is the first access
+     *
+     * @throws LazyLoadException when the value couldn't be decoded or loaded
+     */
+    public T get() {
+        this.lock.lock();
+        try {
+            if (this.loader != null) {
+                try {
+                    this.value = this.loader.load();
+                } catch (Exception exc) {
+                    throw new LazyLoadException(exc);
+                }
+
+                this.loader = null;
+                this.raw = null;
+                this.binary = null;
+            }
+
+            return this.value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the value, the old value is not loaded anymore
+     */
+    public void set(T value) {
+        this.lock.lock();
+        try {
+            this.value = value;
+            this.loader = null;
+            this.raw = null;
+            this.binary = null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wherever the value was already decoded or loaded
+     */
+    public boolean isLoaded() {
+        this.lock.lock();
+        try {
+            return this.loader == null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * The undecoded text read out of the database or null when the value was decoded or must be fetched
+     */
+    String getRaw() {
+        this.lock.lock();
+        try {
+            return this.raw;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * The undeserialized bytes read out of a binary column or null when the value was deserialized or isn't binary
+     */
+    byte[] getBinary() {
+        this.lock.lock();
+        try {
+            return this.binary;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public String toString() {
+        return this.isLoaded() ? String.valueOf(this.value) : "Lazy[not loaded]";
+    }
+
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws Exception;
+    }
+}
@@ -4,7 +4,6 @@ import net.dertod2.DatabaseLib.Data.Column.ColumnType;
 import net.dertod2.DatabaseLib.Database.MySQLDatabase;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -24,19 +23,20 @@ public class MySQLHandler extends CombinedHandler {
     }
 
     public boolean exist(Row row) throws SQLException, IllegalArgumentException, IllegalAccessException, IOException {
-        Connection connection = abstractDatabase.getConnection();
+        TableCache tableCache = TableCache.getCache(row.getClass(), this);
+        if (tableCache.hasPrimaryKey() && this.isCached(tableCache, row)) return true;
+
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
         ResultSet resultSet;
         boolean returnResult;
 
-        TableCache tableCache = TableCache.getCache(row.getClass(), this);
-
         if (tableCache.hasPrimaryKey()) { // Simple and faster :)
             Column column = tableCache.getPrimaryKey();
-            Object primaryKey = row.getColumn(column);
+            Object primaryKey = tableCache.get(row, column);
 
-            preparedStatement = connection.prepareStatement("SELECT * FROM `" + tableCache.getTable() + "` WHERE " + tableCache.getName(column) + " = ?;");
-            this.set(1, preparedStatement, primaryKey, tableCache.getType(column));
+            preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getExistsByPrimaryKey());
+            this.set(1, preparedStatement, primaryKey, tableCache.getCodec(this, column));
 
             resultSet = preparedStatement.executeQuery();
             returnResult = resultSet.next();
@@ -68,7 +68,7 @@ public class MySQLHandler extends CombinedHandler {
                 Object value = columnList.get(column);
                 if (value == null) continue;
 
-                this.set(index++, preparedStatement, value, tableCache.getType(column));
+                this.set(index++, preparedStatement, value, tableCache.getCodec(this, column));
             }
 
             resultSet = preparedStatement.executeQuery();
@@ -80,7 +80,7 @@ public class MySQLHandler extends CombinedHandler {
     }
 
     void createTable(TableCache tableCache) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
 
         StringBuilder columnBuilder = new StringBuilder();
@@ -91,7 +91,7 @@ public class MySQLHandler extends CombinedHandler {
             Column column = iterator.next();
 
             columnBuilder.append("`").append(tableCache.getName(column)).append("` ");
-            columnBuilder.append(toDatabaseType(tableCache.getType(column)));
+            columnBuilder.append(toDatabaseType(tableCache.getCodec(this, column)));
             if (column.autoIncrement() && column.columnType() == ColumnType.Normal)
                 columnBuilder.append(" AUTO_INCREMENT");
             if (column.columnType() != ColumnType.Normal)
@@ -111,8 +111,31 @@ public class MySQLHandler extends CombinedHandler {
         this.closeConnection(connection, preparedStatement, null);
     }
 
-    String toDatabaseType(Type type) {
-        return switch (IncludedTypes.getByObject(type.getTypeName())) {
+    int getCursorFetchSize() {
+        return Integer.MIN_VALUE; // Streams the result row by row, a cursor fetch needs useCursorFetch=true in the url
+    }
+
+    String getUpsertClause(QueryTemplates queryTemplates) {
+        List<String> updateNames = queryTemplates.getUpsertUpdateNames();
+        if (updateNames.isEmpty()) return "ON DUPLICATE KEY UPDATE " + queryTemplates.getConflictKey() + " = " + queryTemplates.getConflictKey();
+
+        StringBuilder stringBuilder = new StringBuilder("ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < updateNames.size(); i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(updateNames.get(i)).append(" = VALUES(").append(updateNames.get(i)).append(")");
+        }
+
+        return stringBuilder.toString();
+    }
+
+    int getMaxParameters() {
+        return 65535;
+    }
+
+    String toDatabaseType(ColumnCodec columnCodec) {
+        if (this.binarySerialization && this.isSerialized(columnCodec)) return "LONGBLOB";
+
+        return switch (columnCodec.getIncludedType()) {
             case Boolean -> "BOOLEAN";
             case Byte, Short, Int -> "INT";
             case Char, Unknown, String -> "TEXT";
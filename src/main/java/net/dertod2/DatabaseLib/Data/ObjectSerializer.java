@@ -0,0 +1,37 @@
+package net.dertod2.DatabaseLib.Data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts values of custom type columns without a registered data type into bytes, used when the handler saves them in binary columns
+ */
+public interface ObjectSerializer {
+    /**
+     * The default, using the java serialization of {@link java.io.Serializable} values
+     */
+    ObjectSerializer JAVA = new ObjectSerializer() {
+        public void serialize(Object value, OutputStream outputStream) throws IOException {
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+            objectOutputStream.writeObject(value);
+            objectOutputStream.flush();
+        }
+
+        public Object deserialize(InputStream inputStream) throws IOException, ClassNotFoundException {
+            return new ObjectInputStream(inputStream).readObject();
+        }
+    };
+
+    /**
+     * Writes the value into the stream, the stream must not be closed
+     */
+    void serialize(Object value, OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads the value written by {@link #serialize(Object, OutputStream)} out of the stream
+     */
+    Object deserialize(InputStream inputStream) throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,93 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Exceptions.NoTableColumnException;
+import net.dertod2.DatabaseLib.Exceptions.RowStreamException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Loads a table page by page with keyset pagination. After each page the helper seeks behind the last loaded row,
+ * so deep pages are as cheap as the first one. Holds no database connection between the pages.
+ */
+public class PageIterator<T extends Row> implements Iterator<List<T>> {
+    private final Handler handler;
+    private final Class<T> row;
+    private final Helper helper;
+
+    private final TableCache tableCache;
+    private final Column column;
+    private final int pageSize;
+
+    private List<T> next;
+    private Object position; // The seek value behind the last returned page
+    private boolean finished;
+
+    PageIterator(Handler handler, Class<T> row, Helper helper, String column, int pageSize) {
+        this.handler = handler;
+        this.row = row;
+        this.helper = new Helper(helper); // The helper of the caller stays unchanged
+
+        this.tableCache = TableCache.getCache(row, handler);
+        this.column = this.tableCache.getColumn(column);
+        this.pageSize = pageSize;
+
+        if (this.column == null) throw new NoTableColumnException(column, this.tableCache);
+        if (pageSize < 1) throw new IllegalArgumentException("The page size must be at least 1");
+
+        if (!column.equals(this.helper.afterColumn)) this.helper.after(column, null); // Keeps the position of a resumed helper
+        this.helper.limit(pageSize, 0);
+        this.position = this.helper.afterValue;
+
+        // The seek value is read from the loaded rows, so a projection must load the column
+        if (!this.helper.columns.isEmpty() && this.column != this.tableCache.getPrimaryKey() && !this.helper.columns.contains(column)) {
+            this.helper.columns(column);
+        }
+    }
+
+    public boolean hasNext() {
+        if (this.next != null) return true;
+        if (this.finished) return false;
+
+        List<T> page;
+
+        try {
+            page = this.handler.load(this.row, this.helper);
+        } catch (Exception exc) {
+            this.finished = true;
+            throw new RowStreamException(exc);
+        }
+
+        if (page.size() < this.pageSize) this.finished = true; // A short page is the last one
+        if (page.isEmpty()) return false;
+
+        Object lastValue = this.tableCache.get(page.getLast(), this.column);
+        if (lastValue == null) { // Without a value the next load would start at the first page again
+            this.finished = true;
+            throw new IllegalStateException("The column '" + this.helper.afterColumn + "' can't be paged over as the last row of the page has no value for it");
+        }
+
+        this.helper.after(this.helper.afterColumn, lastValue);
+        this.next = page;
+
+        return true;
+    }
+
+    public List<T> next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+
+        List<T> page = this.next;
+        this.position = this.helper.afterValue;
+        this.next = null;
+
+        return page;
+    }
+
+    /**
+     * A copy of the helper of this iterator. Positioned behind the last returned page, so it can be saved to continue later.
+     */
+    public Helper getHelper() {
+        return new Helper(this.helper).after(this.helper.afterColumn, this.position);
+    }
+}
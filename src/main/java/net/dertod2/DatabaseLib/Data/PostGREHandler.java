@@ -1,7 +1,12 @@
 package net.dertod2.DatabaseLib.Data;
 
-import com.google.common.collect.ImmutableList;
 import net.dertod2.DatabaseLib.Data.Column.ColumnType;
+import net.dertod2.DatabaseLib.Data.Types.AbstractType;
+import net.dertod2.DatabaseLib.Data.Types.DoubleArrayType;
+import net.dertod2.DatabaseLib.Data.Types.IntArrayType;
+import net.dertod2.DatabaseLib.Data.Types.ListType;
+import net.dertod2.DatabaseLib.Data.Types.LongArrayType;
+import net.dertod2.DatabaseLib.Data.Types.MapType;
 import net.dertod2.DatabaseLib.Database.Pooler.PooledConnection;
 import net.dertod2.DatabaseLib.Database.PostGREDatabase;
 import net.dertod2.DatabaseLib.Exceptions.NoTableColumnException;
@@ -9,14 +14,17 @@ import org.postgresql.PGConnection;
 import org.postgresql.copy.CopyManager;
 
 import java.io.IOException;
-import java.io.PushbackReader;
-import java.io.StringReader;
 import java.lang.reflect.Type;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.*;
+import java.util.logging.Level;
 
 // Differences: auto_increment -> dataType SERIAL or BIGSERIAL
 // so do this: primary keys and auto_increment ONLY as BIGSERIAL and NOT as Integer
@@ -27,155 +35,522 @@ import java.util.*;
  */
 public class PostGREHandler extends DriverHandler {
 
+    protected CopyFormat copyFormat = CopyFormat.Text;
+    protected boolean nativeTypes;
+
     public PostGREHandler(PostGREDatabase postGREDatabase) {
         super(postGREDatabase);
     }
 
     public void insert(Row tableRow) throws SQLException, IllegalArgumentException, IllegalAccessException, IOException {
-        Connection connection = abstractDatabase.getConnection();
-        if (!this.copyInsert(ImmutableList.of(tableRow), connection)) {
-            this.insert(tableRow, connection);
-        }
-
+        Connection connection = this.getConnection();
+        this.insert(tableRow, connection);
         this.closeConnection(connection, null, null);
     }
 
     public <T extends Row> void insert(List<T> entries) throws SQLException, IllegalArgumentException, IllegalAccessException, IOException {
-        if (entries.size() <= 0) return;
+        if (entries.isEmpty()) return;
+
+        Map<Class<? extends Row>, List<Row>> tableEntryList = groupByTable(entries);
+        Connection connection = this.getConnection();
 
-        Connection connection = abstractDatabase.getConnection();
-        if (!this.copyInsert(entries, connection)) {
-            for (T tableRow : entries) this.insert(tableRow, connection);
+        try {
+            this.inTransaction(connection, transaction -> { // All batches in one transaction
+                for (Map.Entry<Class<? extends Row>, List<Row>> entry : tableEntryList.entrySet()) {
+                    this.insert(TableCache.getCache(entry.getKey(), this), entry.getValue(), transaction);
+                }
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
         }
+    }
 
-        this.closeConnection(connection, null, null);
+    /**
+     * Inserts the rows of one table with COPY in batches of up to batchSize rows each
+     */
+    protected void insert(TableCache tableCache, List<Row> tableRows, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
+        for (int offset = 0; offset < tableRows.size(); offset += this.batchSize) {
+            List<Row> batch = tableRows.subList(offset, Math.min(offset + this.batchSize, tableRows.size()));
+
+            if (!this.copyInsert(tableCache, batch, connection)) {
+                for (Row tableRow : batch) this.insert(tableRow, connection);
+            }
+        }
     }
 
     public void insert(Row tableRow, Connection connection) throws IllegalArgumentException, IllegalAccessException, SQLException, IOException {
         TableCache tableCache = TableCache.getCache(tableRow.getClass(), this);
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
 
-        PreparedStatement preparedStatement;
+        PreparedStatement preparedStatement = connection.prepareStatement(queryTemplates.getInsert(), PreparedStatement.RETURN_GENERATED_KEYS);
         ResultSet resultSet = null;
 
-        Map<Column, Object> dataList = tableRow.getColumns();
-        Iterator<Column> iterator = dataList.keySet().iterator();
+        int index = 1;
+        for (Column column : queryTemplates.getInsertColumns()) {
+            this.set(index++, preparedStatement, tableCache.get(tableRow, column), tableCache.getCodec(this, column));
+        }
 
-        StringBuilder columnList = new StringBuilder();
-        StringBuilder valueList = new StringBuilder();
+        preparedStatement.executeUpdate();
 
-        while (iterator.hasNext()) {
-            Column column = iterator.next();
-            if (column.autoIncrement() || column.columnType() == ColumnType.Primary)
-                continue; // Skip auto Increment - the database sets the value itself
+        if (tableCache.hasPrimaryKey()) {
+            Column primaryKey = tableCache.getPrimaryKey();
 
-            columnList.append(tableCache.getName(column)).append(", ");
-            valueList.append("?, ");
+            resultSet = preparedStatement.getGeneratedKeys();
+            if (resultSet.next()) {
+                tableCache.set(tableRow, primaryKey, resultSet.getInt(tableCache.getName(primaryKey))); // Always ints
+            }
         }
 
-        // Remove the leading letter
-        if (!columnList.isEmpty()) columnList.delete(columnList.length() - 2, columnList.length());
-        if (!valueList.isEmpty()) valueList.delete(valueList.length() - 2, valueList.length());
+        tableRow.isLoaded = true;
+        this.closeConnection(null, preparedStatement, resultSet);
+        this.invalidate(tableCache);
+    }
 
-        preparedStatement = connection.prepareStatement("INSERT INTO " + tableCache.getTable() + " (" + columnList + ") VALUES (" + valueList + ");", PreparedStatement.RETURN_GENERATED_KEYS);
+    public CopyFormat getCopyFormat() {
+        return this.copyFormat;
+    }
 
-        iterator = dataList.keySet().iterator(); // Need again... cause iterator can't start over again
+    /**
+     * Sets the format used to stream rows with COPY by insert(List)
+     */
+    public void setCopyFormat(CopyFormat copyFormat) {
+        this.copyFormat = copyFormat;
+    }
 
-        int index = 1;
-        while (iterator.hasNext()) {
-            Column column = iterator.next();
-            if (column.autoIncrement() || column.columnType() == ColumnType.Primary)
-                continue; // Skip auto Increment - the database sets the value itself
-            Object columnValue = dataList.get(column);
+    public boolean isNativeTypes() {
+        return this.nativeTypes;
+    }
+
+    /**
+     * Saves List fields of included types and int[], long[] and double[] fields as native arrays and Map fields as JSONB instead of TEXT.
+     * Affects created tables and columns and how the values are written, so existing tables must be converted with {@link #migrateNativeTypes(Class)}.
+     */
+    public void setNativeTypes(boolean nativeTypes) {
+        this.nativeTypes = nativeTypes;
+    }
+
+    /**
+     * Converts the TEXT columns of the table that have a native type to this type, keeping the saved values, constraints, defaults and indexes.
+     * Needs enabled native types.
+     *
+     * @param row The Table Information
+     */
+    public void migrateNativeTypes(Class<? extends Row> row) throws SQLException, IOException, IllegalAccessException {
+        if (!this.nativeTypes) throw new IllegalStateException("Native types are not enabled");
+
+        TableCache tableCache = TableCache.getCache(row, this);
+        String table = tableCache.getTable();
+        Connection connection = this.getConnection();
+
+        try {
+            this.inTransaction(connection, transaction -> {
+                Set<String> functions = new LinkedHashSet<>();
+
+                for (Column column : tableCache.getLayout()) {
+                    ColumnCodec columnCodec = tableCache.getCodec(this, column);
+                    IncludedTypes element = this.getNativeArray(columnCodec);
+
+                    if (element == null && !this.isNativeJson(columnCodec)) continue;
+
+                    String name = tableCache.getName(column);
+                    if (!this.isTextColumn(table, name, transaction)) continue;
+
+                    if (element == null) {
+                        this.execute(transaction, "ALTER TABLE " + table + " ALTER COLUMN " + name + " TYPE JSONB USING NULLIF(" + name + ", '')::JSONB;");
+                        continue;
+                    }
 
-            this.set(index++, preparedStatement, columnValue, tableCache.getType(column));
+                    // ALTER COLUMN ... USING doesn't allow the subquery of the conversion, a temporary function wraps it
+                    String type = this.toDatabaseType(element);
+                    String function = "pg_temp.databaselib_" + element.name().toLowerCase() + "_array";
+
+                    if (functions.add(function)) {
+                        this.execute(transaction, "CREATE OR REPLACE FUNCTION " + function + "(TEXT) RETURNS " + type + "[] LANGUAGE SQL IMMUTABLE AS $$" +
+                                " SELECT CASE WHEN $1 IS NULL OR $1 = '' THEN NULL" +
+                                " WHEN $1 LIKE '[%' THEN ARRAY(SELECT value::" + type + " FROM jsonb_array_elements_text($1::JSONB) WITH ORDINALITY AS element(value, position) ORDER BY position)" +
+                                " ELSE string_to_array($1, '¶', 'NULL')::" + type + "[] END $$;");
+                    }
+
+                    this.execute(transaction, "ALTER TABLE " + table + " ALTER COLUMN " + name + " TYPE " + type + "[] USING " + function + "(" + name + ");");
+                }
+
+                for (String function : functions) this.execute(transaction, "DROP FUNCTION " + function + "(TEXT);");
+            });
+        } finally {
+            this.closeConnection(connection, null, null);
         }
 
-        preparedStatement.executeUpdate();
+        this.invalidateAll(tableCache);
+    }
 
-        boolean hasPrimaryKey = tableCache.hasPrimaryKey();
-        Column primaryKey = tableCache.getPrimaryKey();
+    private boolean isTextColumn(String table, String column, Connection connection) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement("SELECT data_type FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?;");
+        ResultSet resultSet = null;
 
-        if (hasPrimaryKey) {
-            resultSet = preparedStatement.getGeneratedKeys();
-            if (resultSet.next()) {
-                tableRow.setColumn(primaryKey, resultSet.getInt(tableCache.getName(primaryKey))); // Always ints
+        try {
+            preparedStatement.setString(1, table.toLowerCase()); // Unquoted names are folded to lower case
+            preparedStatement.setString(2, column.toLowerCase());
+
+            resultSet = preparedStatement.executeQuery();
+            return resultSet.next() && resultSet.getString(1).equalsIgnoreCase("text");
+        } finally {
+            this.closeConnection(null, preparedStatement, resultSet);
+        }
+    }
+
+    private void execute(Connection connection, String statement) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(statement);
+
+        try {
+            preparedStatement.execute();
+        } finally {
+            this.closeConnection(null, preparedStatement, null);
+        }
+    }
+
+    /**
+     * The element type when the column is saved as native array or null
+     */
+    IncludedTypes getNativeArray(ColumnCodec columnCodec) {
+        if (!this.nativeTypes || columnCodec.getIncludedType() != IncludedTypes.Unknown) return null;
+
+        AbstractType abstractType = columnCodec.getAbstractType();
+        if (abstractType instanceof IntArrayType) return IncludedTypes.Int;
+        if (abstractType instanceof LongArrayType) return IncludedTypes.Long;
+        if (abstractType instanceof DoubleArrayType) return IncludedTypes.Double;
+
+        Type[] genericTypes = columnCodec.getGenericTypes();
+        if (!(abstractType instanceof ListType) || genericTypes == null || genericTypes.length != 1) return null;
+
+        IncludedTypes element = IncludedTypes.getByObject(genericTypes[0].getTypeName());
+        return element != IncludedTypes.Unknown ? element : null;
+    }
+
+    /**
+     * Wherever the column is saved as JSONB
+     */
+    boolean isNativeJson(ColumnCodec columnCodec) {
+        return this.nativeTypes && columnCodec.getIncludedType() == IncludedTypes.Unknown && columnCodec.getAbstractType() instanceof MapType;
+    }
+
+    void set(int index, PreparedStatement preparedStatement, Object value, ColumnCodec columnCodec) throws SQLException, IOException {
+        IncludedTypes element = this.getNativeArray(columnCodec);
+        boolean json = element == null && this.isNativeJson(columnCodec);
+
+        if (element == null && !json) {
+            super.set(index, preparedStatement, value, columnCodec);
+            return;
+        }
+
+        if (columnCodec.isLazy() && value instanceof Lazy<?> lazy) {
+            String raw = lazy.getRaw();
+            if (raw != null) { // Untouched - written back as it was read
+                preparedStatement.setObject(index, raw, Types.OTHER);
+                return;
             }
+
+            value = lazy.get();
         }
 
-        tableRow.isLoaded = true;
-        this.closeConnection(null, preparedStatement, resultSet);
+        if (json) {
+            String text = this.encode(value, columnCodec);
+
+            if (text != null) preparedStatement.setObject(index, text, Types.OTHER);
+            else preparedStatement.setNull(index, Types.OTHER);
+        } else if (value == null) {
+            preparedStatement.setNull(index, Types.ARRAY);
+        } else {
+            Array array = preparedStatement.getConnection().createArrayOf(this.getArrayTypeName(element), this.toArray(value, element));
+
+            try {
+                preparedStatement.setArray(index, array);
+            } finally {
+                array.free();
+            }
+        }
     }
 
-    private <T extends Row> boolean copyInsert(List<T> entries, Connection connection) {
+    Object get(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        if (columnCodec.isLazy() && this.getNativeArray(columnCodec) != null) return new Lazy<>(this.readCustom(resultSet, columnIndex, columnCodec, binary)); // No raw text to keep
+        return super.get(resultSet, columnIndex, columnCodec, binary);
+    }
+
+    Object readCustom(ResultSet resultSet, int columnIndex, ColumnCodec columnCodec, boolean binary) throws SQLException {
+        IncludedTypes element = this.getNativeArray(columnCodec);
+        if (element == null) return super.readCustom(resultSet, columnIndex, columnCodec, binary);
+
+        Object value = resultSet.getObject(columnIndex);
+        if (!(value instanceof Array array)) return this.decode(value != null ? value.toString() : null, columnCodec); // Not migrated yet
+
         try {
-            CopyManager copyManager = ((PGConnection) ((PooledConnection) connection).getRawConnection()).getCopyAPI();
-            StringBuilder stringBuilder = new StringBuilder();
-            final int batchSize = 75;
+            return this.fromArray((Object[]) array.getArray(), element, columnCodec);
+        } finally {
+            array.free();
+        }
+    }
+
+    /**
+     * Converts the list or primitive array into the elements bound as native array
+     */
+    private Object[] toArray(Object value, IncludedTypes element) {
+        Object[] elements;
+
+        switch (value) {
+            case int[] array -> {
+                elements = new Object[array.length];
+                for (int i = 0; i < array.length; i++) elements[i] = array[i];
+            }
+            case long[] array -> {
+                elements = new Object[array.length];
+                for (int i = 0; i < array.length; i++) elements[i] = array[i];
+            }
+            case double[] array -> {
+                elements = new Object[array.length];
+                for (int i = 0; i < array.length; i++) elements[i] = array[i];
+            }
+            default -> {
+                List<?> list = (List<?>) value;
+                elements = new Object[list.size()];
+
+                for (int i = 0; i < elements.length; i++) {
+                    Object object = list.get(i);
+
+                    elements[i] = object == null ? null : switch (element) {
+                        case Byte, Short, Int -> ((Number) object).intValue();
+                        case Float, Double -> ((Number) object).doubleValue();
+                        case Char -> object.toString();
+                        default -> object;
+                    };
+                }
+            }
+        }
+
+        return elements;
+    }
+
+    /**
+     * Converts the elements of a native array into the list or primitive array of the field
+     */
+    private Object fromArray(Object[] elements, IncludedTypes element, ColumnCodec columnCodec) {
+        Type type = columnCodec.getType();
+
+        if (type == int[].class) {
+            int[] array = new int[elements.length];
+            for (int i = 0; i < array.length; i++) if (elements[i] != null) array[i] = ((Number) elements[i]).intValue();
+
+            return array;
+        } else if (type == long[].class) {
+            long[] array = new long[elements.length];
+            for (int i = 0; i < array.length; i++) if (elements[i] != null) array[i] = ((Number) elements[i]).longValue();
+
+            return array;
+        } else if (type == double[].class) {
+            double[] array = new double[elements.length];
+            for (int i = 0; i < array.length; i++) if (elements[i] != null) array[i] = ((Number) elements[i]).doubleValue();
+
+            return array;
+        }
+
+        List<Object> list = new ArrayList<>(elements.length);
+        for (Object object : elements) {
+            list.add(object == null ? null : switch (element) {
+                case Byte -> ((Number) object).byteValue();
+                case Short -> ((Number) object).shortValue();
+                case Int -> ((Number) object).intValue();
+                case Long -> ((Number) object).longValue();
+                case Float -> ((Number) object).floatValue();
+                case Double -> ((Number) object).doubleValue();
+                case Char -> object.toString().isEmpty() ? null : object.toString().charAt(0);
+                case String -> object.toString();
+                default -> object;
+            });
+        }
+
+        return list;
+    }
 
-            // Prepare the Rows !warning! don't mix different table data here
-            // The copyRows method only works with data WITHOUT a primary Key or "return variables"
+    /**
+     * Writes the list or primitive array as array literal for COPY
+     */
+    private String toArrayLiteral(Object value, IncludedTypes element) {
+        if (value == null) return null;
 
-            Map<String, List<Row>> tableEntryList = new HashMap<>();
-            TableCache tableCache = TableCache.getCache(entries.get(0).getClass(), this);
+        StringBuilder stringBuilder = new StringBuilder("{");
+        Object[] elements = this.toArray(value, element);
 
-            for (T tableRow : entries) {
-                if (tableCache.hasPrimaryKey()) return false;
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) stringBuilder.append(',');
 
-                if (!tableEntryList.containsKey(tableCache.getTable()))
-                    tableEntryList.put(tableCache.getTable(), new ArrayList<>());
-                tableEntryList.get(tableCache.getTable()).add(tableRow);
+            Object object = elements[i];
+            if (object == null) {
+                stringBuilder.append("NULL");
+            } else if (object instanceof Number || object instanceof Boolean) {
+                stringBuilder.append(object);
+            } else {
+                String text = object instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : object.toString();
+                stringBuilder.append('"').append(text.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
             }
+        }
 
-            for (String tableName : tableEntryList.keySet()) {
-                PushbackReader pushBackReader = new PushbackReader(new StringReader(""), 10000);
-                List<Row> tableList = tableEntryList.get(tableName);
-
-                for (int i = 0; i < tableList.size(); i++) {
-                    Row tableRow = tableList.get(i);
-                    List<Column> columnList = tableCache.getLayout();
-
-                    for (Column column : columnList) {
-                        Object data = tableRow.getColumn(column);
-                        Type type = tableCache.getType(column);
-
-                        IncludedTypes primitiveWrapper = IncludedTypes.getByObject(type.getTypeName());
-                        if (primitiveWrapper == IncludedTypes.String) {
-                            stringBuilder.append("'").append((String) data).append("',");
-                        } else if (primitiveWrapper == IncludedTypes.Unknown) {
-                            stringBuilder.append("'").append(abstractDatabase.getDataType(type.getTypeName()).setResult(data)).append("',");
-                        } else {
-                            stringBuilder.append(data).append(",");
-                        }
-                    }
+        return stringBuilder.append('}').toString();
+    }
+
+    /**
+     * The element type name for Connection.createArrayOf
+     */
+    private String getArrayTypeName(IncludedTypes element) {
+        return switch (element) {
+            case Boolean -> "bool";
+            case Byte, Short, Int -> "int4";
+            case Long -> "int8";
+            case Float, Double -> "float8";
+            case Timestamp -> "timestamp";
+            default -> "text";
+        };
+    }
+
+    /**
+     * Streams the rows of one table with one COPY into the database. Serial primary keys are reserved out of the sequence before and written back to the rows.
+     * Must run inside a transaction, a failed COPY is rolled back to a savepoint.
+     *
+     * @return Wherever the rows were written. When not, the caller must insert them the usual way.
+     */
+    private boolean copyInsert(TableCache tableCache, List<Row> tableRows, Connection connection) throws SQLException, IOException {
+        CopyManager copyManager = this.getCopyManager(connection);
+        if (copyManager == null) return false;
+
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
+        List<Column> insertColumns = queryTemplates.getInsertColumns();
+
+        boolean hasPrimaryKey = tableCache.hasPrimaryKey();
+        if (insertColumns.isEmpty() && !hasPrimaryKey) return false;
+
+        int[] columnIndexes = new int[insertColumns.size()];
+        ColumnCodec[] columnCodecs = new ColumnCodec[insertColumns.size()];
+        IncludedTypes[] nativeArrays = new IncludedTypes[insertColumns.size()];
+        StringBuilder columnList = new StringBuilder(hasPrimaryKey ? tableCache.getName(tableCache.getPrimaryKey()) : "");
+
+        for (int i = 0; i < columnIndexes.length; i++) {
+            Column column = insertColumns.get(i);
 
-                    stringBuilder.delete(stringBuilder.length() - 1, stringBuilder.length());
-                    stringBuilder.append("\n");
+            columnIndexes[i] = tableCache.getIndex(column);
+            columnCodecs[i] = tableCache.getCodec(this, column);
+            nativeArrays[i] = this.getNativeArray(columnCodecs[i]);
 
-                    if (i % batchSize == 0) {
-                        pushBackReader.unread(stringBuilder.toString().toCharArray());
-                        copyManager.copyIn("COPY " + tableName + " FROM STDIN WITH CSV", pushBackReader);
-                        stringBuilder.delete(0, stringBuilder.length());
+            // The binary layouts of arrays and JSONB are not written by the copy writer
+            if (this.copyFormat == CopyFormat.Binary && (nativeArrays[i] != null || this.isNativeJson(columnCodecs[i]))) return false;
+
+            if (!columnList.isEmpty()) columnList.append(", ");
+            columnList.append(tableCache.getName(column));
+        }
+
+        long[] keys = null;
+        if (hasPrimaryKey && (keys = this.reserveKeys(tableCache, tableRows.size(), connection)) == null) return false;
+
+        int columns = columnIndexes.length + (hasPrimaryKey ? 1 : 0);
+        Savepoint savepoint = connection.setSavepoint();
+        CopyWriter copyWriter = null;
+
+        try {
+            copyWriter = new CopyWriter(copyManager.copyIn(CopyWriter.getStatement(queryTemplates.getTable(), columnList.toString(), this.copyFormat)), this.copyFormat);
+
+            for (int row = 0; row < tableRows.size(); row++) {
+                Row tableRow = tableRows.get(row);
+                copyWriter.startRow(columns);
+
+                if (hasPrimaryKey) copyWriter.writeKey(keys[row]);
+
+                for (int i = 0; i < columnIndexes.length; i++) {
+                    Object value = tableCache.get(tableRow, columnIndexes[i]);
+
+                    if (columnCodecs[i].isLazy() && value instanceof Lazy<?> lazy) {
+                        String raw = lazy.getRaw();
+                        if (raw != null) { // Untouched - written back as it was read
+                            copyWriter.writeText(raw);
+                            continue;
+                        }
+
+                        value = lazy.get();
                     }
 
-                    tableRow.isLoaded = true;
+                    if (nativeArrays[i] != null) {
+                        copyWriter.writeText(this.toArrayLiteral(value, nativeArrays[i]));
+                    } else if (this.binarySerialization && this.isSerialized(columnCodecs[i])) {
+                        copyWriter.writeBinary(value != null ? this.serialize(value).toByteArray() : null);
+                    } else if (columnCodecs[i].getIncludedType() == IncludedTypes.Unknown) {
+                        copyWriter.writeText(this.encode(value, columnCodecs[i]));
+                    } else {
+                        copyWriter.write(value, columnCodecs[i].getIncludedType());
+                    }
                 }
 
-                pushBackReader.unread(stringBuilder.toString().toCharArray());
-                copyManager.copyIn("COPY " + tableName + " FROM STDIN WITH CSV", pushBackReader);
+                copyWriter.endRow();
             }
 
-            return true;
-        } catch (SQLException | IOException | IllegalArgumentException | IllegalAccessException ignored) {
+            copyWriter.finish();
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException | IOException | RuntimeException exc) {
+            if (copyWriter != null) copyWriter.cancel();
+            connection.rollback(savepoint);
 
+            this.abstractDatabase.logger.log(Level.WARNING, "PostGREHandler copyInsert failed, inserting the rows one by one", exc);
+            return false;
         }
 
-        return false;
+        for (int row = 0; row < tableRows.size(); row++) {
+            Row tableRow = tableRows.get(row);
+
+            if (hasPrimaryKey) {
+                Column primaryKey = tableCache.getPrimaryKey();
+                boolean isLong = tableCache.getCodec(this, primaryKey).getIncludedType() == IncludedTypes.Long;
+
+                tableCache.set(tableRow, primaryKey, isLong ? (Object) keys[row] : (Object) (int) keys[row]);
+            }
+
+            tableRow.isLoaded = true;
+        }
+
+        this.invalidate(tableCache);
+        return true;
+    }
+
+    /**
+     * Takes the next keys out of the sequence of the serial primary key
+     *
+     * @return The keys or null when the primary key has no sequence
+     */
+    private long[] reserveKeys(TableCache tableCache, int amount, Connection connection) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement("SELECT nextval(pg_get_serial_sequence(?, ?)) FROM generate_series(1, ?);");
+        preparedStatement.setString(1, tableCache.getTable());
+        preparedStatement.setString(2, tableCache.getName(tableCache.getPrimaryKey()).toLowerCase(Locale.ROOT)); // Taken literally, the unquoted column was folded
+        preparedStatement.setInt(3, amount);
+
+        ResultSet resultSet = preparedStatement.executeQuery();
+        long[] keys = new long[amount];
+        int index = 0;
+
+        while (resultSet.next() && index < amount) {
+            keys[index++] = resultSet.getLong(1);
+
+            if (resultSet.wasNull()) {
+                index = -1; // No serial column
+                break;
+            }
+        }
+
+        this.closeConnection(null, preparedStatement, resultSet);
+        return index == amount ? keys : null;
+    }
+
+    private CopyManager getCopyManager(Connection connection) throws SQLException {
+        Connection rawConnection = connection instanceof PooledConnection pooledConnection ? pooledConnection.getRawConnection() : connection;
+        return rawConnection.isWrapperFor(PGConnection.class) ? rawConnection.unwrap(PGConnection.class).getCopyAPI() : null;
     }
 
     public <T extends Row> boolean remove(Class<T> row, Helper helper) throws SQLException, IOException {
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
 
         TableCache tableCache = TableCache.getCache(row, this);
@@ -190,6 +565,7 @@ public class PostGREHandler extends DriverHandler {
 
         preparedStatement.executeUpdate();
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return true;
     }
@@ -199,42 +575,47 @@ public class PostGREHandler extends DriverHandler {
 
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         boolean returnResult;
 
         TableCache tableCache = TableCache.getCache(row.getClass(), this);
-        Map<Column, Object> columnList = row.getColumns();
+        QueryTemplates queryTemplates = tableCache.getTemplates(this);
 
-        StringBuilder set = new StringBuilder();
+        String update;
+        List<Column> updateColumns;
 
-        for (Column column : columnList.keySet()) {
-            if (column.columnType() == ColumnType.Primary) continue;
-            if (rows != null && !rows.isEmpty() && !rows.contains(tableCache.getName(column))) continue;
+        if (rows == null || rows.isEmpty()) {
+            update = queryTemplates.getUpdate();
+            updateColumns = queryTemplates.getUpdateColumns();
+        } else {
+            StringBuilder set = new StringBuilder();
+            updateColumns = new ArrayList<>();
 
-            if (!set.isEmpty()) {
-                set.append(",  ").append(tableCache.getName(column)).append(" = ?");
-            } else {
+            for (Column column : queryTemplates.getUpdateColumns()) {
+                if (!rows.contains(tableCache.getName(column))) continue;
+
+                if (!set.isEmpty()) set.append(", ");
                 set.append(tableCache.getName(column)).append(" = ?");
+                updateColumns.add(column);
             }
+
+            update = "UPDATE " + queryTemplates.getTable() + " SET " + set;
         }
 
         int index = 1;
 
         String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        PreparedStatement preparedStatement = connection.prepareStatement("UPDATE " + tableCache.getTable() + " SET " + set + where + ";");
-
-        for (Column column : columnList.keySet()) {
-            if (column.columnType() == ColumnType.Primary) continue;
-            if (rows != null && !rows.isEmpty() && !rows.contains(tableCache.getName(column))) continue;
+        PreparedStatement preparedStatement = connection.prepareStatement(update + where + ";");
 
-            Object columnValue = columnList.get(column);
-            this.set(index++, preparedStatement, columnValue, tableCache.getType(column));
+        for (Column column : updateColumns) {
+            this.set(index++, preparedStatement, tableCache.get(row, column), tableCache.getCodec(this, column));
         }
 
         this.fillWhereQueue(index, tableCache, helper, preparedStatement);
 
         returnResult = preparedStatement.executeUpdate() > 0;
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return returnResult;
     }
@@ -244,7 +625,7 @@ public class PostGREHandler extends DriverHandler {
             throw new NullPointerException("The specificRows argument can't be null");
         if (helper == null) helper = new Helper();
 
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         boolean returnResult;
 
         TableCache tableCache = TableCache.getCache(row.getClass(), this);
@@ -272,13 +653,14 @@ public class PostGREHandler extends DriverHandler {
             Column column = tableCache.getColumn(columnName);
 
             if (column.columnType() == ColumnType.Primary) continue;
-            this.set(index++, preparedStatement, content.get(columnName), tableCache.getType(column));
+            this.set(index++, preparedStatement, content.get(columnName), tableCache.getCodec(this, column));
         }
 
         this.fillWhereQueue(index, tableCache, helper, preparedStatement);
 
         returnResult = preparedStatement.executeUpdate() > 0;
         this.closeConnection(connection, preparedStatement, null);
+        this.invalidate(tableCache, helper);
 
         return returnResult;
     }
@@ -287,17 +669,40 @@ public class PostGREHandler extends DriverHandler {
         if (helper == null) helper = new Helper();
 
         TableCache tableCache = TableCache.getCache(row, this);
-        Connection connection = abstractDatabase.getConnection();
+        QueryCache.QueryKey queryKey = this.getQueryKey(tableCache, false, helper);
 
-        StringBuilder get = new StringBuilder();
-        StringBuilder last = new StringBuilder();
+        if (queryKey != null) {
+            List<T> cached = this.queryCache.getRows(queryKey, tableCache, row);
+            if (cached != null) return cached;
+        }
+
+        Connection connection = this.getConnection();
+
+        int[] projection = this.getProjection(tableCache, helper);
+        List<String> loadedColumns = this.getProjectionNames(tableCache, projection);
 
-        List<Column> tableLayout = tableCache.getLayout();
-        for (Column value : tableLayout) {
-            if (!get.isEmpty()) get.append(", ");
-            get.append(tableCache.getName(value));
+        PreparedStatement preparedStatement = connection.prepareStatement(this.buildSelect(tableCache, helper, projection));
+        this.fillWhereQueue(tableCache, helper, preparedStatement);
+
+        ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet == null) return new ArrayList<>();
+        List<T> results = new ArrayList<>();
+        ColumnCodec[] columnCodecs = tableCache.getCodecs(this);
+        boolean[] binaryColumns = this.getBinaryColumns(resultSet, columnCodecs, projection);
+
+        while (resultSet.next()) {
+            results.add(this.hydrate(row, tableCache, columnCodecs, projection, loadedColumns, binaryColumns, resultSet));
         }
 
+        this.closeConnection(connection, preparedStatement, resultSet);
+        if (queryKey != null) this.queryCache.putRows(queryKey, tableCache, results);
+
+        return results;
+    }
+
+    String buildSelect(TableCache tableCache, Helper helper, int[] projection) {
+        StringBuilder last = new StringBuilder();
+
         if (!helper.groupBy.isEmpty()) {
             last.append(" GROUP BY ");
 
@@ -321,42 +726,26 @@ public class PostGREHandler extends DriverHandler {
         if (helper.limit > 0) last.append(" LIMIT ").append(helper.limit);
         if (helper.offset > 0) last.append(" OFFSET ").append(helper.offset);
 
-        String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        PreparedStatement preparedStatement = connection.prepareStatement("SELECT " + get + " FROM " + tableCache.getTable() + where + last + ";");
-        this.fillWhereQueue(tableCache, helper, preparedStatement);
-
-        ResultSet resultSet = preparedStatement.executeQuery();
-        if (resultSet == null) return new ArrayList<>();
-        List<T> results = new ArrayList<>();
-
-        while (resultSet.next()) {
-            @SuppressWarnings("deprecation")
-            T newInstance = row.newInstance();
-
-            for (Column column : tableLayout) {
-                newInstance.setColumn(column, this.get(resultSet, column, tableCache.getType(column)));
-            }
-
-            newInstance.isLoaded = true;
-            results.add(newInstance);
-        }
-
-        this.closeConnection(connection, preparedStatement, resultSet);
-
-        return results;
+        return tableCache.getTemplates(this).getSelect(projection) + helper.buildWhereQueue(this.abstractDatabase.getType()) + last + ";";
     }
 
     @Override
     public <T extends Row> long count(Class<T> row, Helper helper) throws SQLException, IllegalArgumentException, IOException {
-        Connection connection = abstractDatabase.getConnection();
         PreparedStatement preparedStatement;
         ResultSet resultSet;
         long result = 0;
 
         TableCache tableCache = TableCache.getCache(row, this);
+        QueryCache.QueryKey queryKey = this.getQueryKey(tableCache, true, helper);
 
+        if (queryKey != null) {
+            Long cached = this.queryCache.getCount(queryKey);
+            if (cached != null) return cached;
+        }
+
+        Connection connection = this.getConnection();
         String where = helper.buildWhereQueue(this.abstractDatabase.getType());
-        preparedStatement = connection.prepareStatement("SELECT COUNT(*) AS elements FROM " + tableCache.getTable() + where + ";");
+        preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getCount() + where + ";");
 
         this.fillWhereQueue(tableCache, helper, preparedStatement);
 
@@ -365,24 +754,26 @@ public class PostGREHandler extends DriverHandler {
             result = resultSet.getLong("elements");
         }
 
+        if (queryKey != null) this.queryCache.putCount(queryKey, result);
         this.closeConnection(connection, preparedStatement, resultSet);
         return result;
     }
 
     public boolean exist(Row row) throws SQLException, IllegalArgumentException, IllegalAccessException, IOException {
-        Connection connection = abstractDatabase.getConnection();
+        TableCache tableCache = TableCache.getCache(row.getClass(), this);
+        if (tableCache.hasPrimaryKey() && this.isCached(tableCache, row)) return true;
+
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
         ResultSet resultSet;
         boolean returnResult;
 
-        TableCache tableCache = TableCache.getCache(row.getClass(), this);
-
         if (tableCache.hasPrimaryKey()) { // Simple and faster :)
             Column column = tableCache.getPrimaryKey();
-            Object primaryKey = row.getColumn(column);
+            Object primaryKey = tableCache.get(row, column);
 
-            preparedStatement = connection.prepareStatement("SELECT * FROM " + tableCache.getTable() + " WHERE " + tableCache.getName(column) + " = ?;");
-            this.set(1, preparedStatement, primaryKey, tableCache.getType(column));
+            preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getExistsByPrimaryKey());
+            this.set(1, preparedStatement, primaryKey, tableCache.getCodec(this, column));
 
             resultSet = preparedStatement.executeQuery();
             returnResult = resultSet.next();
@@ -414,7 +805,7 @@ public class PostGREHandler extends DriverHandler {
                 Object value = columnList.get(column);
                 if (value == null) continue;
 
-                this.set(index++, preparedStatement, value, tableCache.getType(column));
+                this.set(index++, preparedStatement, value, tableCache.getCodec(this, column));
             }
 
             resultSet = preparedStatement.executeQuery();
@@ -425,8 +816,20 @@ public class PostGREHandler extends DriverHandler {
         return returnResult;
     }
 
+    int getMaxParameters() {
+        return 32767;
+    }
+
+    boolean isCursorInTransaction() {
+        return true; // Otherwise the driver ignores the fetch size and reads the whole result
+    }
+
+    QueryTemplates createTemplates(TableCache tableCache) {
+        return new QueryTemplates(tableCache, "", true);
+    }
+
     protected void createTable(TableCache tableCache) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
 
         StringBuilder columnBuilder = new StringBuilder();
@@ -437,7 +840,7 @@ public class PostGREHandler extends DriverHandler {
             Column column = iterator.next();
 
             columnBuilder.append(tableCache.getName(column)).append(" ");
-            columnBuilder.append(column.autoIncrement() || column.columnType() == ColumnType.Primary ? "BIGSERIAL" : toDatabaseType(tableCache.getType(column)));
+            columnBuilder.append(column.autoIncrement() || column.columnType() == ColumnType.Primary ? "BIGSERIAL" : toDatabaseType(tableCache.getCodec(this, column)));
             if (column.columnType() != ColumnType.Normal)
                 columnBuilder.append(column.columnType() == ColumnType.Primary ? " PRIMARY KEY" : " UNIQUE");
 
@@ -451,16 +854,16 @@ public class PostGREHandler extends DriverHandler {
     }
 
     protected void addColumn(TableCache tableCache, Column column) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
 
-        PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE " + tableCache.getTable() + " ADD " + tableCache.getName(column) + " " + toDatabaseType(tableCache.getType(column)) + (column.columnType() == ColumnType.Unique ? " UNIQUE" : "") + ";");
+        PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE " + tableCache.getTable() + " ADD " + tableCache.getName(column) + " " + toDatabaseType(tableCache.getCodec(this, column)) + (column.columnType() == ColumnType.Unique ? " UNIQUE" : "") + ";");
         preparedStatement.execute();
 
         this.closeConnection(connection, preparedStatement, null);
     }
 
     protected void delColumn(TableCache tableCache, String columnName) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
 
         PreparedStatement preparedStatement = connection.prepareStatement("ALTER TABLE " + tableCache.getTable() + " DROP " + columnName + ";");
         preparedStatement.execute();
@@ -468,8 +871,18 @@ public class PostGREHandler extends DriverHandler {
         this.closeConnection(connection, preparedStatement, null);
     }
 
-    String toDatabaseType(Type type) {
-        return switch (IncludedTypes.getByObject(type.getTypeName())) {
+    String toDatabaseType(ColumnCodec columnCodec) {
+        if (this.binarySerialization && this.isSerialized(columnCodec)) return "BYTEA";
+
+        IncludedTypes element = this.getNativeArray(columnCodec);
+        if (element != null) return this.toDatabaseType(element) + "[]";
+        if (this.isNativeJson(columnCodec)) return "JSONB";
+
+        return this.toDatabaseType(columnCodec.getIncludedType());
+    }
+
+    private String toDatabaseType(IncludedTypes includedType) {
+        return switch (includedType) {
             case Boolean -> "BOOLEAN";
             case Byte, Short, Int -> "INTEGER";
             case Char, Unknown, String -> "TEXT";
@@ -0,0 +1,106 @@
+package net.dertod2.DatabaseLib.Data;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the results of load and count by the table and the {@link Helper} of the query. Enabled per handler over {@link DriverHandler#enableQueryCache(long, long)}.<br />
+ * Each write of the owning handler into a table invalidates all cached queries of that table. Writes from other handlers or applications are only noticed after the cache time.
+ * Like the row cache, loaded rows are kept as snapshots and every hit returns new row instances.
+ */
+public class QueryCache {
+    private final DriverHandler driverHandler;
+    private final Cache<QueryKey, Object> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    QueryCache(DriverHandler driverHandler, long maximumRows, long cacheTime) {
+        this.driverHandler = driverHandler;
+
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats()
+                .maximumWeight(maximumRows)
+                .weigher((key, value) -> value instanceof List<?> list ? Math.max(1, list.size()) : 1);
+        if (cacheTime > 0) cacheBuilder.expireAfterWrite(cacheTime, TimeUnit.SECONDS);
+
+        this.cache = cacheBuilder.build();
+    }
+
+    /**
+     * Builds the key of a query. Must be taken before the query runs, so a result read before a concurrent write is never cached as current.
+     */
+    QueryKey key(TableCache tableCache, boolean count, Helper helper) {
+        String table = tableCache.getTable();
+        long generation = this.generations.computeIfAbsent(table, name -> new AtomicLong()).get();
+
+        return new QueryKey(table, generation, count, helper != null ? new Helper(helper) : new Helper());
+    }
+
+    <T extends Row> List<T> getRows(QueryKey queryKey, TableCache tableCache, Class<T> row) throws InstantiationException, IllegalAccessException {
+        if (!(this.cache.getIfPresent(queryKey) instanceof List<?> rowSnapshots)) return null;
+
+        List<T> results = new ArrayList<>(rowSnapshots.size());
+        for (Object rowSnapshot : rowSnapshots) {
+            results.add(((RowSnapshot) rowSnapshot).restore(this.driverHandler, tableCache, row));
+        }
+
+        return results;
+    }
+
+    void putRows(QueryKey queryKey, TableCache tableCache, List<? extends Row> rows) throws IOException {
+        List<RowSnapshot> rowSnapshots = new ArrayList<>(rows.size());
+        for (Row row : rows) rowSnapshots.add(RowSnapshot.take(this.driverHandler, tableCache, row));
+
+        this.cache.put(queryKey, rowSnapshots);
+    }
+
+    Long getCount(QueryKey queryKey) {
+        return this.cache.getIfPresent(queryKey) instanceof Long count ? count : null;
+    }
+
+    void putCount(QueryKey queryKey, long count) {
+        this.cache.put(queryKey, count);
+    }
+
+    /**
+     * Invalidates all cached queries of the table. The entries are not removed at once, they just can't be found anymore and get evicted over time.
+     *
+     * @param table The name of the table
+     */
+    public void invalidate(String table) {
+        this.generations.computeIfAbsent(table, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Removes all cached queries
+     */
+    public void invalidateAll() {
+        for (AtomicLong generation : this.generations.values()) generation.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * The number of cached queries
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * The hit, miss and eviction statistics of this cache
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    // The helper is a private copy, so later changes of the caller don't change the key
+    record QueryKey(String table, long generation, boolean count, Helper helper) {
+    }
+}
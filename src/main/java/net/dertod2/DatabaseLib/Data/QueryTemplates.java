@@ -0,0 +1,330 @@
+package net.dertod2.DatabaseLib.Data;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The precompiled statements of one table for one handler. Only the parameters must be bound to use them.
+ */
+public class QueryTemplates {
+    private final String table;
+    private final TableCache tableCache;
+    private final String[] names;
+
+    private final List<Column> insertColumns;
+    private final List<Column> updateColumns;
+    private final List<Column> upsertColumns;
+    private final List<String> upsertUpdateNames;
+
+    private final String insert;
+    private final String insertPrefix;
+    private final String insertValues;
+    private final String select;
+    private final String update;
+    private final String updateByPrimaryKey;
+    private final String existsByPrimaryKey;
+    private final String primaryKey;
+    private final Column conflictColumn;
+    private final String conflictKey;
+    private final String upsertPrefix;
+    private final String upsertValues;
+    private final String count;
+
+    /**
+     * Builds all statements of the table
+     *
+     * @param tableCache          The table
+     * @param quote               The quote character for table and column names of the database dialect
+     * @param updateAutoIncrement Wherever auto increment columns that are not the primary key will be updated
+     */
+    public QueryTemplates(TableCache tableCache, String quote, boolean updateAutoIncrement) {
+        this.tableCache = tableCache;
+        this.table = quote + tableCache.getTable() + quote;
+
+        List<Column> insertColumns = new ArrayList<>();
+        List<Column> updateColumns = new ArrayList<>();
+
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder valueList = new StringBuilder();
+        StringBuilder selectList = new StringBuilder();
+        StringBuilder setList = new StringBuilder();
+
+        List<Column> layout = tableCache.getLayout();
+        this.names = new String[layout.size()];
+
+        for (int i = 0; i < this.names.length; i++) {
+            Column column = layout.get(i);
+            String name = this.names[i] = quote + tableCache.getName(column) + quote;
+
+            if (!selectList.isEmpty()) selectList.append(", ");
+            selectList.append(name);
+
+            if (column.columnType() == Column.ColumnType.Primary) continue;
+
+            if (!column.autoIncrement()) { // Skip auto Increment - the database sets the value itself
+                if (!columnList.isEmpty()) {
+                    columnList.append(", ");
+                    valueList.append(", ");
+                }
+
+                columnList.append(name);
+                valueList.append("?");
+                insertColumns.add(column);
+            }
+
+            if (!column.autoIncrement() || updateAutoIncrement) {
+                if (!setList.isEmpty()) setList.append(", ");
+
+                setList.append(name).append(" = ?");
+                updateColumns.add(column);
+            }
+        }
+
+        this.insertColumns = ImmutableList.copyOf(insertColumns);
+        this.updateColumns = ImmutableList.copyOf(updateColumns);
+
+        // Upserts conflict like update(Row) matches: by the primary key or else by the first unique key
+        Column conflictColumn = this.conflictColumn = tableCache.hasPrimaryKey() ? tableCache.getPrimaryKey() : tableCache.hasUniqueKeys() ? tableCache.getUniqueKeys().get(0) : null;
+        this.conflictKey = conflictColumn != null ? quote + tableCache.getName(conflictColumn) + quote : null;
+
+        List<Column> upsertColumns = new ArrayList<>();
+        List<String> upsertUpdateNames = new ArrayList<>();
+        StringBuilder upsertList = new StringBuilder();
+        StringBuilder upsertValueList = new StringBuilder();
+
+        for (int i = 0; i < this.names.length; i++) {
+            Column column = layout.get(i);
+            if (column != conflictColumn && (column.columnType() == Column.ColumnType.Primary || column.autoIncrement())) continue;
+
+            if (!upsertList.isEmpty()) {
+                upsertList.append(", ");
+                upsertValueList.append(", ");
+            }
+
+            upsertList.append(this.names[i]);
+            upsertValueList.append("?");
+            upsertColumns.add(column);
+
+            if (column != conflictColumn) upsertUpdateNames.add(this.names[i]);
+        }
+
+        this.upsertColumns = ImmutableList.copyOf(upsertColumns);
+        this.upsertUpdateNames = ImmutableList.copyOf(upsertUpdateNames);
+
+        this.insertPrefix = "INSERT INTO " + this.table + " (" + columnList + ") VALUES ";
+        this.insertValues = "(" + valueList + ")";
+        this.insert = this.insertPrefix + this.insertValues + ";";
+        this.select = "SELECT " + selectList + " FROM " + this.table;
+        this.update = "UPDATE " + this.table + " SET " + setList;
+        this.upsertPrefix = "INSERT INTO " + this.table + " (" + upsertList + ") VALUES ";
+        this.upsertValues = "(" + upsertValueList + ")";
+        this.count = "SELECT COUNT(*) AS elements FROM " + this.table;
+
+        if (tableCache.hasPrimaryKey()) {
+            String primaryKey = quote + tableCache.getName(tableCache.getPrimaryKey()) + quote;
+
+            this.updateByPrimaryKey = this.update + " WHERE " + primaryKey + " = ?;";
+            this.existsByPrimaryKey = "SELECT 1 FROM " + this.table + " WHERE " + primaryKey + " = ? LIMIT 1;";
+            this.primaryKey = primaryKey;
+        } else {
+            this.primaryKey = null;
+            this.updateByPrimaryKey = null;
+            this.existsByPrimaryKey = null;
+        }
+    }
+
+    /**
+     * The quoted name of the table
+     */
+    public String getTable() {
+        return this.table;
+    }
+
+    /**
+     * The columns bound by the insert statement in parameter order
+     */
+    public List<Column> getInsertColumns() {
+        return this.insertColumns;
+    }
+
+    /**
+     * The columns bound by the update statements in parameter order
+     */
+    public List<Column> getUpdateColumns() {
+        return this.updateColumns;
+    }
+
+    /**
+     * The columns bound by the upsert statement in parameter order, including the conflict key
+     */
+    public List<Column> getUpsertColumns() {
+        return this.upsertColumns;
+    }
+
+    /**
+     * The column an upsert conflicts on or null when the table has neither primary nor unique key
+     */
+    public Column getConflictColumn() {
+        return this.conflictColumn;
+    }
+
+    /**
+     * Wherever the database generates the value of the conflict column, so new rows don't have one before they are inserted
+     */
+    public boolean isConflictGenerated() {
+        return this.conflictColumn != null && (this.conflictColumn.columnType() == Column.ColumnType.Primary || this.conflictColumn.autoIncrement());
+    }
+
+    /**
+     * The quoted name of the column an upsert conflicts on: the primary key or else the first unique key. Null when the table has neither
+     */
+    public String getConflictKey() {
+        return this.conflictKey;
+    }
+
+    /**
+     * The quoted names of the columns an upsert overwrites on a conflict
+     */
+    public List<String> getUpsertUpdateNames() {
+        return this.upsertUpdateNames;
+    }
+
+    /**
+     * INSERT INTO table (columns) VALUES (?, ...), ... clause; with one value group per row
+     *
+     * @param rows   The number of rows written by the statement
+     * @param clause The conflict handling of the database dialect or an empty string
+     */
+    public String getUpsert(int rows, String clause) {
+        StringBuilder stringBuilder = new StringBuilder(this.upsertPrefix.length() + (this.upsertValues.length() + 2) * rows + clause.length() + 2);
+        stringBuilder.append(this.upsertPrefix).append(this.upsertValues);
+
+        for (int i = 1; i < rows; i++) {
+            stringBuilder.append(", ").append(this.upsertValues);
+        }
+
+        if (!clause.isEmpty()) stringBuilder.append(" ").append(clause);
+        return stringBuilder.append(";").toString();
+    }
+
+    /**
+     * INSERT INTO table (columns) VALUES (?, ...);
+     */
+    public String getInsert() {
+        return this.insert;
+    }
+
+    /**
+     * INSERT INTO table (columns) VALUES (?, ...), (?, ...), ...; with one value group per row
+     *
+     * @param rows The number of rows written by the statement
+     */
+    public String getInsert(int rows) {
+        if (rows == 1) return this.insert;
+
+        StringBuilder stringBuilder = new StringBuilder(this.insertPrefix.length() + (this.insertValues.length() + 2) * rows);
+        stringBuilder.append(this.insertPrefix).append(this.insertValues);
+
+        for (int i = 1; i < rows; i++) {
+            stringBuilder.append(", ").append(this.insertValues);
+        }
+
+        return stringBuilder.append(";").toString();
+    }
+
+    /**
+     * SELECT all columns in layout order FROM table - without where clause and semicolon
+     */
+    public String getSelect() {
+        return this.select;
+    }
+
+    /**
+     * SELECT only the given columns FROM table - without where clause and semicolon
+     *
+     * @param projection The layout indexes of the columns or null for all columns
+     */
+    public String getSelect(int[] projection) {
+        if (projection == null) return this.select;
+
+        StringBuilder stringBuilder = new StringBuilder("SELECT ");
+        for (int i = 0; i < projection.length; i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(this.names[projection[i]]);
+        }
+
+        return stringBuilder.append(" FROM ").append(this.table).toString();
+    }
+
+    /**
+     * UPDATE table SET column = ?, ... - without where clause and semicolon
+     */
+    public String getUpdate() {
+        return this.update;
+    }
+
+    /**
+     * UPDATE table SET column = ?, ... WHERE primary = ?; or null when the table has no primary key
+     */
+    public String getUpdateByPrimaryKey() {
+        return this.updateByPrimaryKey;
+    }
+
+    /**
+     * SELECT column FROM table WHERE primary = ?; or null when the table has no primary key
+     *
+     * @param index The layout index of the column
+     */
+    public String getSelectByPrimaryKey(int index) {
+        if (this.primaryKey == null) return null;
+        return this.getSelect(new int[]{index}) + " WHERE " + this.primaryKey + " = ?;";
+    }
+
+    /**
+     * UPDATE table SET column = ?, ... WHERE primary = ?; with only the given columns or null when the table has no primary key
+     *
+     * @param columns The updated columns in parameter order
+     */
+    public String getUpdateByPrimaryKey(List<Column> columns) {
+        if (this.primaryKey == null) return null;
+        if (columns.equals(this.updateColumns)) return this.updateByPrimaryKey;
+
+        StringBuilder stringBuilder = new StringBuilder("UPDATE ").append(this.table).append(" SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(this.names[this.tableCache.getIndex(columns.get(i))]).append(" = ?");
+        }
+
+        return stringBuilder.append(" WHERE ").append(this.primaryKey).append(" = ?;").toString();
+    }
+
+    /**
+     * DELETE FROM table WHERE primary IN (?, ...); or null when the table has no primary key
+     *
+     * @param keys The number of primary keys bound by the statement
+     */
+    public String getDeleteByPrimaryKeys(int keys) {
+        if (this.primaryKey == null) return null;
+
+        StringBuilder stringBuilder = new StringBuilder("DELETE FROM ").append(this.table).append(" WHERE ").append(this.primaryKey).append(" IN (");
+        for (int i = 0; i < keys; i++) stringBuilder.append(i > 0 ? ", ?" : "?");
+
+        return stringBuilder.append(");").toString();
+    }
+
+    /**
+     * SELECT 1 FROM table WHERE primary = ? LIMIT 1; or null when the table has no primary key
+     */
+    public String getExistsByPrimaryKey() {
+        return this.existsByPrimaryKey;
+    }
+
+    /**
+     * SELECT COUNT(*) AS elements FROM table - without where clause and semicolon
+     */
+    public String getCount() {
+        return this.count;
+    }
+}
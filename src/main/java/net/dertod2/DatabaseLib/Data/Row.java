@@ -1,9 +1,8 @@
 package net.dertod2.DatabaseLib.Data;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Note that this class always needs an empty constructor
@@ -12,6 +11,7 @@ import java.util.Map.Entry;
  */
 public abstract class Row {
     boolean isLoaded = false;
+    List<String> loadedColumns = null; // Only set when the row was loaded with a projection
 
     public Row() {
     }
@@ -35,41 +35,23 @@ public abstract class Row {
     // #########################
 
     Object getColumn(Column annotation) throws IllegalArgumentException, IllegalAccessException {
-        Map<Column, Field> fields = TableCache.getCache(getClass()).getColumnFields();
-
-        for (Entry<Column, Field> entry : fields.entrySet()) {
-            if (entry.getKey().equals(annotation)) return entry.getValue().get(this);
-        }
-
-        return null;
+        return TableCache.getCache(getClass()).get(this, annotation);
     }
 
     Map<Column, Object> getColumns() throws IllegalArgumentException, IllegalAccessException {
-        Map<Column, Field> fields = TableCache.getCache(getClass()).getColumnFields();
-        Map<Column, Object> data = new HashMap<>();
+        TableCache tableCache = TableCache.getCache(getClass());
+        List<Column> layout = tableCache.getLayout();
+        Map<Column, Object> data = new LinkedHashMap<>();
 
-        for (Entry<Column, Field> entry : fields.entrySet()) {
-            data.put(entry.getKey(), entry.getValue().get(this));
+        for (int i = 0; i < layout.size(); i++) {
+            data.put(layout.get(i), tableCache.get(this, i));
         }
 
         return data;
     }
 
     void setColumn(Column annotation, Object value) throws IllegalArgumentException, IllegalAccessException {
-        Map<Column, Field> fields = TableCache.getCache(getClass()).getColumnFields();
-
-        for (Entry<Column, Field> entry : fields.entrySet()) {
-            if (entry.getKey().equals(annotation)) {
-                if (entry.getValue().isEnumConstant()) {
-                    entry.getValue().set(this, Enum.valueOf(entry.getValue().getType().asSubclass(Enum.class), (String) value));
-                } else {
-                    entry.getValue().set(this, value);
-                }
-                entry.getValue().set(this, value);
-                return;
-            }
-        }
-
+        TableCache.getCache(getClass()).set(this, annotation, value);
     }
 
-}
\ No newline at end of file
+}
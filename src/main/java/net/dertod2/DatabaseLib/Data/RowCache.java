@@ -0,0 +1,116 @@
+package net.dertod2.DatabaseLib.Data;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the rows of one table by their primary key. Enabled per table over {@link Table#cacheSize()}.<br />
+ * The cache keeps a snapshot of the column values, not the row itself: every hit returns a new row instance, so changing a returned row never changes the cache.<br />
+ * Writes over the handler owning this cache invalidate the affected rows. Writes from other handlers or applications are only noticed after {@link Table#cacheTime()}.
+ */
+public class RowCache {
+    private final DriverHandler driverHandler;
+    private final TableCache tableCache;
+    private final Cache<Object, RowSnapshot> cache;
+    private final AtomicLong generation = new AtomicLong(); // Changed by every write, before the cache itself is changed
+
+    RowCache(DriverHandler driverHandler, TableCache tableCache, int cacheSize, long cacheTime) {
+        this.driverHandler = driverHandler;
+        this.tableCache = tableCache;
+
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats();
+        if (cacheTime > 0) cacheBuilder.expireAfterWrite(cacheTime, TimeUnit.SECONDS);
+
+        this.cache = cacheBuilder.build();
+    }
+
+    /**
+     * Returns a new instance of the cached row
+     *
+     * @param row        The Table Information
+     * @param primaryKey The primary key of the row
+     * @return The row or null when it's not cached
+     */
+    public <T extends Row> T get(Class<T> row, Object primaryKey) throws InstantiationException, IllegalAccessException {
+        RowSnapshot rowSnapshot = this.cache.getIfPresent(RowCache.key(primaryKey));
+        return rowSnapshot != null ? rowSnapshot.restore(this.driverHandler, this.tableCache, row) : null;
+    }
+
+    /**
+     * Wherever the row with the given primary key is cached
+     */
+    public boolean contains(Object primaryKey) {
+        return this.cache.getIfPresent(RowCache.key(primaryKey)) != null;
+    }
+
+    /**
+     * Caches the current state of the row after it was written. Rows loaded with a projection are not cached, as they miss columns.
+     */
+    public void put(Row row) throws IOException {
+        if (row.loadedColumns != null) return;
+
+        this.generation.incrementAndGet();
+        this.cache.put(RowCache.key(this.tableCache.get(row, this.tableCache.getPrimaryKey())), RowSnapshot.take(this.driverHandler, this.tableCache, row));
+    }
+
+    /**
+     * The generation of the cache, must be taken before a row is loaded to cache it with {@link #put(Row, long)}
+     */
+    long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Caches a loaded row, unless a write happened since the generation was taken. The row may then hold an outdated state.
+     *
+     * @param generation The generation taken before the row was loaded
+     */
+    void put(Row row, long generation) throws IOException {
+        if (row.loadedColumns != null || this.generation.get() != generation) return;
+
+        Object primaryKey = RowCache.key(this.tableCache.get(row, this.tableCache.getPrimaryKey()));
+        this.cache.put(primaryKey, RowSnapshot.take(this.driverHandler, this.tableCache, row));
+
+        if (this.generation.get() != generation) this.cache.invalidate(primaryKey); // A write raced the put
+    }
+
+    /**
+     * Removes the row with the given primary key out of the cache
+     */
+    public void invalidate(Object primaryKey) {
+        this.generation.incrementAndGet();
+        this.cache.invalidate(RowCache.key(primaryKey));
+    }
+
+    /**
+     * Removes all rows out of the cache
+     */
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * The number of cached rows
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * The hit, miss and eviction statistics of this cache
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    // Integer and Long keys of the same row must match
+    private static Object key(Object primaryKey) {
+        return primaryKey instanceof Integer || primaryKey instanceof Short || primaryKey instanceof Byte ? ((Number) primaryKey).longValue() : primaryKey;
+    }
+}
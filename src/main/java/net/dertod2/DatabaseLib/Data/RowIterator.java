@@ -0,0 +1,97 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Exceptions.RowStreamException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of an open result set and creates each row only when it's requested.
+ * Holds the database connection until all rows are read or the iterator is closed.
+ */
+public class RowIterator<T extends Row> implements Iterator<T>, AutoCloseable {
+    private final DriverHandler driverHandler;
+    private final Class<T> row;
+    private final TableCache tableCache;
+    private final ColumnCodec[] columnCodecs;
+    private final boolean[] binaryColumns;
+    private final int[] projection;
+    private final List<String> loadedColumns;
+
+    private final Connection connection;
+    private final PreparedStatement preparedStatement;
+    private final ResultSet resultSet;
+    private final boolean resetAutoCommit;
+
+    private T next;
+    private boolean closed;
+
+    RowIterator(DriverHandler driverHandler, Class<T> row, TableCache tableCache, int[] projection, Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, boolean resetAutoCommit) throws SQLException {
+        this.driverHandler = driverHandler;
+        this.row = row;
+        this.tableCache = tableCache;
+        this.columnCodecs = tableCache.getCodecs(driverHandler);
+        this.projection = projection;
+        this.loadedColumns = driverHandler.getProjectionNames(tableCache, projection);
+
+        this.connection = connection;
+        this.preparedStatement = preparedStatement;
+        this.resultSet = resultSet;
+        this.resetAutoCommit = resetAutoCommit;
+
+        this.binaryColumns = driverHandler.getBinaryColumns(resultSet, this.columnCodecs, projection);
+    }
+
+    public boolean hasNext() {
+        if (this.next != null) return true;
+        if (this.closed) return false;
+
+        try {
+            if (this.resultSet.next()) {
+                this.next = this.driverHandler.hydrate(this.row, this.tableCache, this.columnCodecs, this.projection, this.loadedColumns, this.binaryColumns, this.resultSet);
+                return true;
+            }
+        } catch (SQLException | InstantiationException | IllegalAccessException exc) {
+            this.close();
+            throw new RowStreamException(exc);
+        }
+
+        this.close(); // All rows read - give the connection back as early as possible
+        return false;
+    }
+
+    public T next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+
+        T row = this.next;
+        this.next = null;
+
+        return row;
+    }
+
+    /**
+     * Closes the cursor and returns the connection. Called automatically after the last row.
+     */
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+        this.next = null;
+
+        this.driverHandler.closeConnection(null, this.preparedStatement, this.resultSet);
+
+        if (this.resetAutoCommit) { // The cursor only read - just end the transaction it needed
+            try {
+                this.connection.commit();
+                this.connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+
+        this.driverHandler.closeConnection(this.connection, null, null);
+    }
+}
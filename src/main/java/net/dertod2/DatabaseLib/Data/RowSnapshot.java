@@ -0,0 +1,96 @@
+package net.dertod2.DatabaseLib.Data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The detached column values of one row, used by the caches. Restoring creates a new row instance each time, so changing a restored row never changes the snapshot.
+ * Custom types are kept encoded, as their values are mutable. Undecoded lazy values are kept as they were read.
+ */
+final class RowSnapshot {
+    private static final Object DEFERRED = new Object(); // A lazy column skipped by a projection
+
+    private final Object[] values;
+    private final List<String> loadedColumns;
+
+    private RowSnapshot(Object[] values, List<String> loadedColumns) {
+        this.values = values;
+        this.loadedColumns = loadedColumns;
+    }
+
+    static RowSnapshot take(DriverHandler driverHandler, TableCache tableCache, Row row) throws IOException {
+        ColumnCodec[] columnCodecs = tableCache.getCodecs(driverHandler);
+        Object[] values = new Object[columnCodecs.length];
+
+        for (int i = 0; i < columnCodecs.length; i++) {
+            ColumnCodec columnCodec = columnCodecs[i];
+            Object value = tableCache.get(row, i);
+
+            if (columnCodec.isLazy() && value instanceof Lazy<?> lazy) {
+                String raw = lazy.getRaw();
+                byte[] binary = lazy.getBinary();
+
+                if (raw != null) {
+                    values[i] = new Encoded(raw);
+                    continue;
+                } else if (binary != null) { // Never changed, the lazy value only reads it
+                    values[i] = new EncodedBinary(binary);
+                    continue;
+                } else if (!lazy.isLoaded()) {
+                    values[i] = RowSnapshot.DEFERRED;
+                    continue;
+                }
+
+                value = lazy.get();
+            }
+
+            if (columnCodec.getIncludedType() == IncludedTypes.Unknown && value != null && !(value instanceof Enum<?>)) {
+                values[i] = new Encoded(driverHandler.encode(value, columnCodec));
+            } else {
+                values[i] = value instanceof Timestamp timestamp ? timestamp.clone() : value;
+            }
+        }
+
+        return new RowSnapshot(values, row.loadedColumns);
+    }
+
+    <T extends Row> T restore(DriverHandler driverHandler, TableCache tableCache, Class<T> row) throws InstantiationException, IllegalAccessException {
+        ColumnCodec[] columnCodecs = tableCache.getCodecs(driverHandler);
+        Object primaryKey = tableCache.hasPrimaryKey() ? this.values[tableCache.getIndex(tableCache.getPrimaryKey())] : null;
+
+        @SuppressWarnings("deprecation")
+        T newInstance = row.newInstance();
+
+        for (int i = 0; i < columnCodecs.length; i++) {
+            ColumnCodec columnCodec = columnCodecs[i];
+            Object value = this.values[i];
+
+            if (value == RowSnapshot.DEFERRED) {
+                int index = i;
+                value = new Lazy<>(null, () -> driverHandler.loadColumn(tableCache, index, primaryKey));
+            } else if (value instanceof EncodedBinary(byte[] binary)) {
+                value = Lazy.binary(binary, () -> driverHandler.deserialize(new ByteArrayInputStream(binary), columnCodec));
+            } else if (value instanceof Encoded(String text)) {
+                value = columnCodec.isLazy() ? new Lazy<>(text, () -> driverHandler.decode(text, columnCodec)) : driverHandler.decode(text, columnCodec);
+            } else {
+                if (value instanceof Timestamp timestamp) value = timestamp.clone();
+                if (columnCodec.isLazy()) value = new Lazy<>(value);
+            }
+
+            tableCache.set(newInstance, i, value);
+        }
+
+        newInstance.loadedColumns = this.loadedColumns;
+        newInstance.isLoaded = true;
+
+        return newInstance;
+    }
+
+    private record Encoded(String text) {
+    }
+
+    private record EncodedBinary(byte[] binary) {
+    }
+}
@@ -4,7 +4,6 @@ import net.dertod2.DatabaseLib.Data.Column.ColumnType;
 import net.dertod2.DatabaseLib.Database.SQLiteDatabase;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -23,19 +22,20 @@ public class SQLiteHandler extends CombinedHandler {
     }
 
     public boolean exist(Row row) throws SQLException, IllegalArgumentException, IllegalAccessException, IOException {
-        Connection connection = abstractDatabase.getConnection();
+        TableCache tableCache = TableCache.getCache(row.getClass(), this);
+        if (tableCache.hasPrimaryKey() && this.isCached(tableCache, row)) return true;
+
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
         ResultSet resultSet;
         boolean returnResult;
 
-        TableCache tableCache = TableCache.getCache(row.getClass(), this);
-
         if (tableCache.hasPrimaryKey()) { // Simple and faster :)
             Column column = tableCache.getPrimaryKey();
-            Object primaryKey = row.getColumn(column);
+            Object primaryKey = tableCache.get(row, column);
 
-            preparedStatement = connection.prepareStatement("SELECT * FROM `" + tableCache.getTable() + "` WHERE " + tableCache.getName(column) + " = ?;");
-            this.set(1, preparedStatement, primaryKey, tableCache.getType(column));
+            preparedStatement = connection.prepareStatement(tableCache.getTemplates(this).getExistsByPrimaryKey());
+            this.set(1, preparedStatement, primaryKey, tableCache.getCodec(this, column));
 
         } else { // Needs to check more - so a little slower
             Map<Column, Object> columnList = row.getColumns();
@@ -65,7 +65,7 @@ public class SQLiteHandler extends CombinedHandler {
                 Object value = columnList.get(column);
                 if (value == null) continue;
 
-                this.set(index++, preparedStatement, value, tableCache.getType(column));
+                this.set(index++, preparedStatement, value, tableCache.getCodec(this, column));
             }
 
         }
@@ -78,7 +78,7 @@ public class SQLiteHandler extends CombinedHandler {
     }
 
     void createTable(TableCache tableCache) throws SQLException {
-        Connection connection = abstractDatabase.getConnection();
+        Connection connection = this.getConnection();
         PreparedStatement preparedStatement;
 
         StringBuilder columnBuilder = new StringBuilder();
@@ -89,7 +89,7 @@ public class SQLiteHandler extends CombinedHandler {
             Column column = iterator.next();
 
             columnBuilder.append("`").append(tableCache.getName(column)).append("` ");
-            columnBuilder.append(toDatabaseType(tableCache.getType(column)));
+            columnBuilder.append(toDatabaseType(tableCache.getCodec(this, column)));
             if (column.columnType() != ColumnType.Normal)
                 columnBuilder.append(column.columnType() == ColumnType.Primary ? " PRIMARY KEY AUTOINCREMENT" : " UNIQUE");
 
@@ -102,8 +102,31 @@ public class SQLiteHandler extends CombinedHandler {
         this.closeConnection(connection, preparedStatement, null);
     }
 
-    String toDatabaseType(Type type) {
-        return switch (IncludedTypes.getByObject(type.getTypeName())) {
+    void readGeneratedKeys(TableCache tableCache, List<Row> chunk, PreparedStatement preparedStatement) throws SQLException {
+        Column primaryKey = tableCache.getPrimaryKey();
+        ResultSet resultSet = preparedStatement.getGeneratedKeys();
+
+        try {
+            // The driver only returns the last rowid - the rows of one statement get ascending ids as the transaction holds the write lock
+            if (resultSet.next()) {
+                int lastKey = resultSet.getInt(1);
+                for (int i = 0; i < chunk.size(); i++) {
+                    tableCache.set(chunk.get(i), primaryKey, lastKey - chunk.size() + 1 + i);
+                }
+            }
+        } finally {
+            this.closeConnection(null, null, resultSet);
+        }
+    }
+
+    int getMaxParameters() {
+        return 999; // SQLITE_MAX_VARIABLE_NUMBER of older SQLite versions
+    }
+
+    String toDatabaseType(ColumnCodec columnCodec) {
+        if (this.binarySerialization && this.isSerialized(columnCodec)) return "BLOB";
+
+        return switch (columnCodec.getIncludedType()) {
             case Boolean -> "BOOLEAN";
             case Byte, Short, Int, Long -> "INTEGER";
             case Char, Unknown, String -> "TEXT";
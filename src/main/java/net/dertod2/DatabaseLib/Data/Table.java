@@ -12,4 +12,15 @@ public @interface Table {
      * The Name of the Table in the database
      */
     String name();
+
+    /**
+     * The maximum number of rows kept in the row cache of this table. 0 disables the cache.
+     * Only rows of tables with a primary key are cached.
+     */
+    int cacheSize() default 0;
+
+    /**
+     * The seconds a row stays in the row cache after it was cached. 0 keeps the rows until they are evicted by size or a write.
+     */
+    long cacheTime() default 300;
 }
\ No newline at end of file
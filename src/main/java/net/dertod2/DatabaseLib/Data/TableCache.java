@@ -4,14 +4,21 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import net.dertod2.DatabaseLib.Exceptions.MultiplePrimaryKeysException;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TableCache {
-    private static final Map<String, TableCache> cache = new HashMap<>();
+    private static final Map<String, TableCache> cache = new ConcurrentHashMap<>();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Row.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Row.class, Object.class);
 
     private final String className;
     private final List<Column> uniques;
@@ -20,14 +27,26 @@ public class TableCache {
     private final Map<Column, Type> types;
     private final Map<Column, String> names;
     private final List<Column> layout;
+    private final Map<Column, Integer> indexes; // Identity based, annotations have an expensive hashCode
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+    private final Class<?>[] enums;
     private final Map<UUID, Boolean> initializes;
+    private final Map<UUID, QueryTemplates> templates;
+    private final Map<UUID, ColumnCodec[]> codecs;
+    private final Map<UUID, RowCache> rowCaches;
+    private final int cacheSize;
+    private final long cacheTime;
     private String tableName;
     private Constructor<? extends Row> constructor;
     private Column primary;
 
     public TableCache(Class<? extends Row> clazz) {
         this.className = clazz.getName();
-        this.tableName = clazz.getAnnotation(Table.class).name();
+        Table table = clazz.getAnnotation(Table.class);
+        this.tableName = table.name();
+        this.cacheSize = table.cacheSize();
+        this.cacheTime = table.cacheTime();
 
         if (this.tableName.length() <= 0) this.tableName = clazz.getSimpleName().toLowerCase();
 
@@ -85,7 +104,34 @@ public class TableCache {
 
         this.layout = ImmutableList.copyOf(layout);
 
-        this.initializes = new HashMap<>();
+        // Dense column indexes in layout order with direct field accessors
+        Map<Column, Integer> indexes = new IdentityHashMap<>();
+        this.getters = new MethodHandle[layout.size()];
+        this.setters = new MethodHandle[layout.size()];
+        this.enums = new Class<?>[layout.size()];
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < layout.size(); i++) {
+            Column column = layout.get(i);
+            Field field = fields.get(column);
+
+            try {
+                this.getters[i] = lookup.unreflectGetter(field).asType(TableCache.GETTER_TYPE);
+                this.setters[i] = lookup.unreflectSetter(field).asType(TableCache.SETTER_TYPE);
+            } catch (IllegalAccessException exc) {
+                throw new IllegalStateException("The field '" + field.getName() + "' of class '" + clazz.getSimpleName() + "' can't be accessed by the DatabaseHandler", exc);
+            }
+
+            if (field.getType().isEnum()) this.enums[i] = field.getType();
+            indexes.put(column, i);
+        }
+
+        this.indexes = Collections.unmodifiableMap(indexes);
+
+        this.initializes = new ConcurrentHashMap<>();
+        this.templates = new ConcurrentHashMap<>();
+        this.codecs = new ConcurrentHashMap<>();
+        this.rowCaches = new ConcurrentHashMap<>();
     }
 
     public static TableCache getCache(Class<? extends Row> clazz) {
@@ -93,9 +139,7 @@ public class TableCache {
     }
 
     public static TableCache getCache(Class<? extends Row> clazz, Handler handler) {
-        if (!cache.containsKey(clazz.getName())) cache.put(clazz.getName(), new TableCache(clazz));
-
-        TableCache tableCache = cache.get(clazz.getName());
+        TableCache tableCache = cache.computeIfAbsent(clazz.getName(), className -> new TableCache(clazz));
         if (handler != null && !tableCache.initializes.containsKey(handler.handlerUniqueId)) {
             try {
                 handler.updateTable(tableCache);
@@ -108,6 +152,60 @@ public class TableCache {
         return tableCache;
     }
 
+    /**
+     * Returns the precompiled statements of this table for the given handler
+     *
+     * @param handler The handler that executes the statements
+     * @return QueryTemplates
+     */
+    public QueryTemplates getTemplates(DriverHandler handler) {
+        return this.templates.computeIfAbsent(handler.handlerUniqueId, uniqueId -> handler.createTemplates(this));
+    }
+
+    /**
+     * Returns the resolved data types of all columns in layout order for the database of the given handler
+     *
+     * @param handler The handler that reads and binds the values
+     * @return ColumnCodec array indexed like the layout
+     */
+    public ColumnCodec[] getCodecs(Handler handler) {
+        return this.codecs.computeIfAbsent(handler.handlerUniqueId, uniqueId -> {
+            ColumnCodec[] columnCodecs = new ColumnCodec[this.layout.size()];
+
+            for (int i = 0; i < columnCodecs.length; i++) {
+                Type type = this.types.get(this.layout.get(i));
+                boolean lazy = type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == Lazy.class;
+                if (lazy) type = ((ParameterizedType) type).getActualTypeArguments()[0];
+
+                columnCodecs[i] = new ColumnCodec(type, handler.abstractDatabase.getDataType(type.getTypeName()), lazy);
+            }
+
+            return columnCodecs;
+        });
+    }
+
+    /**
+     * Returns the resolved data type of the column for the database of the given handler
+     *
+     * @param handler The handler that reads and binds the values
+     * @param column  The column
+     * @return ColumnCodec
+     */
+    public ColumnCodec getCodec(Handler handler, Column column) {
+        return this.getCodecs(handler)[this.getIndex(column)];
+    }
+
+    /**
+     * Returns the row cache of this table for the given handler
+     *
+     * @param handler The handler that loads and writes the rows
+     * @return RowCache or null when the table has no primary key or the cache is not enabled by {@link Table#cacheSize()}
+     */
+    public RowCache getRowCache(DriverHandler handler) {
+        if (this.cacheSize <= 0 || this.primary == null) return null;
+        return this.rowCaches.computeIfAbsent(handler.handlerUniqueId, uniqueId -> new RowCache(handler, this, this.cacheSize, this.cacheTime));
+    }
+
     public static List<Field> getAllDeclaredFields(List<Field> fields, Class<?> type) {
         fields.addAll(Arrays.asList(type.getDeclaredFields()));
 
@@ -203,6 +301,79 @@ public class TableCache {
         return this.names.get(column);
     }
 
+    /**
+     * Returns the position of the column inside the layout
+     *
+     * @param column The column
+     * @return The index or -1 when the column is not part of this table
+     */
+    public int getIndex(Column column) {
+        Integer index = this.indexes.get(column);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Reads the value of the column at the layout index out of the row
+     *
+     * @param row   The row of this table
+     * @param index The layout index of the column
+     * @return The value of the field
+     */
+    public Object get(Row row, int index) {
+        try {
+            return (Object) this.getters[index].invokeExact(row);
+        } catch (RuntimeException | Error exc) {
+            throw exc;
+        } catch (Throwable exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    /**
+     * Reads the value of the column out of the row
+     *
+     * @param row    The row of this table
+     * @param column The column
+     * @return The value of the field or null when the column is not part of this table
+     */
+    public Object get(Row row, Column column) {
+        int index = this.getIndex(column);
+        return index != -1 ? this.get(row, index) : null;
+    }
+
+    /**
+     * Writes the value of the column at the layout index into the row
+     *
+     * @param row   The row of this table
+     * @param index The layout index of the column
+     * @param value The new value of the field
+     */
+    public void set(Row row, int index, Object value) {
+        if (this.enums[index] != null && value instanceof String name) {
+            value = Enum.valueOf(this.enums[index].asSubclass(Enum.class), name);
+        }
+
+        try {
+            this.setters[index].invokeExact(row, value);
+        } catch (RuntimeException | Error exc) {
+            throw exc;
+        } catch (Throwable exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    /**
+     * Writes the value of the column into the row
+     *
+     * @param row    The row of this table
+     * @param column The column
+     * @param value  The new value of the field
+     */
+    public void set(Row row, Column column, Object value) {
+        int index = this.getIndex(column);
+        if (index != -1) this.set(row, index, value);
+    }
+
     public static class ColumnClassSorter implements Comparator<Column> {
 
         public int compare(Column o1, Column o2) {
@@ -0,0 +1,134 @@
+package net.dertod2.DatabaseLib.Data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * One unit of work on a single pinned connection. While the transaction is open, every operation of the handler in the
+ * same thread runs on this connection and is only persisted by {@link #commit()}:
+ * <pre>
+ * try (Transaction transaction = handler.beginTransaction()) {
+ *     handler.insert(rows);
+ *     handler.update(row);
+ *     transaction.commit();
+ * }
+ * </pre>
+ * Operations of other threads, like those of an {@link AsyncHandler}, are not part of the transaction.
+ * On SQLite all threads share one connection, so their operations wait until the transaction is closed. Waiting inside the transaction
+ * for the result of such an operation never returns.
+ * The row and query caches are bypassed inside the transaction and the written tables are invalidated on commit.
+ */
+public class Transaction implements AutoCloseable {
+    private final DriverHandler driverHandler;
+    private final Connection connection;
+
+    private final Set<TableCache> writtenTables = new LinkedHashSet<>();
+    private boolean closed;
+
+    Transaction(DriverHandler driverHandler, Connection connection) throws SQLException {
+        this.driverHandler = driverHandler;
+        this.connection = connection;
+
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * The pinned connection used by all operations inside the transaction
+     */
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Remembers a table written inside the transaction, its caches are invalidated on commit
+     */
+    void written(TableCache tableCache) {
+        this.writtenTables.add(tableCache);
+    }
+
+    /**
+     * Persists all changes since the start of the transaction or the last commit. The transaction stays open for further work.
+     */
+    public void commit() throws SQLException {
+        this.checkOpen();
+        this.connection.commit();
+
+        for (TableCache tableCache : this.writtenTables) this.driverHandler.invalidateAll(tableCache);
+        this.writtenTables.clear();
+    }
+
+    /**
+     * Discards all changes since the start of the transaction or the last commit
+     */
+    public void rollback() throws SQLException {
+        this.checkOpen();
+        this.connection.rollback();
+
+        this.writtenTables.clear(); // The caches only hold committed data
+    }
+
+    /**
+     * Creates a savepoint to partially roll back the transaction
+     *
+     * @param name The name of the savepoint
+     */
+    public Savepoint setSavepoint(String name) throws SQLException {
+        this.checkOpen();
+        return this.connection.setSavepoint(name);
+    }
+
+    /**
+     * Discards all changes made after the savepoint
+     */
+    public void rollback(Savepoint savepoint) throws SQLException {
+        this.checkOpen();
+        this.connection.rollback(savepoint);
+    }
+
+    /**
+     * Removes the savepoint, the changes made after it stay part of the transaction
+     */
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        this.checkOpen();
+        this.connection.releaseSavepoint(savepoint);
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Rolls back all uncommitted changes and returns the connection to the pool
+     */
+    public void close() throws SQLException {
+        if (this.closed) return;
+        this.closed = true;
+
+        try {
+            this.connection.rollback();
+        } finally {
+            try {
+                this.connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+
+            this.driverHandler.endTransaction(this);
+            this.driverHandler.closeConnection(this.connection, null, null);
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (this.closed) throw new SQLException("The transaction is already closed");
+    }
+
+    /**
+     * The work done inside a transaction
+     */
+    @FunctionalInterface
+    public interface Work<R> {
+        R run() throws Exception;
+    }
+}
@@ -0,0 +1,35 @@
+package net.dertod2.DatabaseLib.Data.Types;
+
+/**
+ * Saves double[] columns like a list of doubles
+ */
+public class DoubleArrayType extends NumberArrayType {
+
+    public DoubleArrayType() {
+        super(double[].class);
+    }
+
+    public String setResult(Object value) {
+        if (value == null) return null;
+
+        double[] array = (double[]) value;
+        StringBuilder stringBuilder = new StringBuilder(array.length * 8 + 2).append('[');
+
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) stringBuilder.append(',');
+            stringBuilder.append(array[i]);
+        }
+
+        return stringBuilder.append(']').toString();
+    }
+
+    Object decode(String value, Elements elements, int length) {
+        double[] array = new double[length];
+
+        for (int i = 0; i < length && elements.next(); i++) {
+            if (!elements.isNull()) array[i] = Double.parseDouble(value.substring(elements.start, elements.stop));
+        }
+
+        return array;
+    }
+}
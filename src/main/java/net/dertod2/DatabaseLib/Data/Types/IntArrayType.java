@@ -0,0 +1,35 @@
+package net.dertod2.DatabaseLib.Data.Types;
+
+/**
+ * Saves int[] columns like a list of integers
+ */
+public class IntArrayType extends NumberArrayType {
+
+    public IntArrayType() {
+        super(int[].class);
+    }
+
+    public String setResult(Object value) {
+        if (value == null) return null;
+
+        int[] array = (int[]) value;
+        StringBuilder stringBuilder = new StringBuilder(array.length * 4 + 2).append('[');
+
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) stringBuilder.append(',');
+            stringBuilder.append(array[i]);
+        }
+
+        return stringBuilder.append(']').toString();
+    }
+
+    Object decode(String value, Elements elements, int length) {
+        int[] array = new int[length];
+
+        for (int i = 0; i < length && elements.next(); i++) {
+            if (!elements.isNull()) array[i] = Integer.parseInt(value, elements.start, elements.stop, 10);
+        }
+
+        return array;
+    }
+}
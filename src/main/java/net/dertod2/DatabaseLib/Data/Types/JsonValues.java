@@ -0,0 +1,111 @@
+package net.dertod2.DatabaseLib.Data.Types;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.dertod2.DatabaseLib.Data.IncludedTypes;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Timestamp;
+
+/**
+ * Streaming reads and writes of the json values used by the list and map types, without building a json tree for each cell.
+ * Writes exactly the text Gson writes for the equivalent JsonArray, so saved values stay unchanged.
+ */
+final class JsonValues {
+
+    private JsonValues() {
+    }
+
+    /**
+     * A writer configured like Gson.toJson(JsonElement)
+     */
+    static JsonWriter writer(StringWriter stringWriter) {
+        JsonWriter jsonWriter = new JsonWriter(stringWriter);
+        jsonWriter.setHtmlSafe(true);
+        jsonWriter.setLenient(true);
+
+        return jsonWriter;
+    }
+
+    /**
+     * A reader configured like JsonParser.parseString(String)
+     */
+    static JsonReader reader(String value) {
+        JsonReader jsonReader = new JsonReader(new StringReader(value));
+        jsonReader.setLenient(true);
+
+        return jsonReader;
+    }
+
+    /**
+     * Writes a value of one of the included types. Values of other types are skipped
+     */
+    static void write(JsonWriter jsonWriter, Object value) throws IOException {
+        switch (value) {
+            case null -> jsonWriter.nullValue();
+            case Boolean b -> jsonWriter.value(b);
+            case Number number -> jsonWriter.value(number);
+            case Character c -> jsonWriter.value(c.toString());
+            case String s -> jsonWriter.value(s);
+            case Timestamp timestamp -> jsonWriter.value(timestamp.toString());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Reads the next value as the given included type
+     *
+     * @return The value or null for a json null
+     */
+    static Object read(JsonReader jsonReader, IncludedTypes includedType) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        return switch (includedType) {
+            case Boolean -> jsonReader.peek() == JsonToken.BOOLEAN ? jsonReader.nextBoolean() : Boolean.parseBoolean(jsonReader.nextString());
+            case Byte -> (byte) jsonReader.nextInt();
+            case Char -> JsonValues.readString(jsonReader).charAt(0);
+            case Double -> jsonReader.nextDouble();
+            case Float -> Float.parseFloat(jsonReader.nextString());
+            case Int -> jsonReader.nextInt();
+            case Long -> jsonReader.nextLong();
+            case Short -> (short) jsonReader.nextInt();
+            case String -> JsonValues.readString(jsonReader);
+            case Timestamp -> Timestamp.valueOf(jsonReader.nextString());
+            case Unknown -> {
+                jsonReader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Reads the next value as text, like JsonElement.getAsString()
+     *
+     * @return The text or null for a json null
+     */
+    static String readString(JsonReader jsonReader) throws IOException {
+        JsonToken jsonToken = jsonReader.peek();
+
+        if (jsonToken == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        return jsonToken == JsonToken.BOOLEAN ? String.valueOf(jsonReader.nextBoolean()) : jsonReader.nextString();
+    }
+
+    /**
+     * Wraps the error of a malformed value like the json parser does
+     */
+    static JsonSyntaxException malformed(IOException exc) {
+        return new JsonSyntaxException(exc);
+    }
+}
@@ -1,24 +1,23 @@
 package net.dertod2.DatabaseLib.Data.Types;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.dertod2.DatabaseLib.Data.IncludedTypes;
 import net.dertod2.DatabaseLib.Exceptions.UnhandledDataTypeException;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 
 public class ListType extends AbstractType {
     private static final String OLD_REGEX = "¶";
     private static final String OLD_NULL = "NULL";
-    private static String EMPTY_LIST;
-
-    static {
-        ListType.EMPTY_LIST = new Gson().toJson(new JsonArray());
-    }
+    private static final String EMPTY_LIST = "[]";
 
     public ListType() {
         super(List.class.getName(), ArrayList.class.getName());
@@ -34,38 +33,34 @@ public class ListType extends AbstractType {
         String type = list.getFirst() == null ? null : list.getFirst().getClass().getTypeName();
         boolean customType = IncludedTypes.getByObject(type) == IncludedTypes.Unknown;
 
-        JsonArray jsonArray = new JsonArray();
-
-        if (customType) {
-            for (Object object : list) {
-                if (object == null) jsonArray.add(JsonNull.INSTANCE);
-                else {
-                    assert type != null;
-                    AbstractType abstractType = this.abstractDatabase.getDataType(type);
-                    if (abstractType != null) {
-                        jsonArray.add(abstractType.setResult(object));
-                    } else {
-                        throw new UnhandledDataTypeException(object.getClass());
-                    }
-                }
-            }
-        } else {
-            for (Object object : list) {
-                switch (object) {
-                    case null -> // Primitive type or String
-                            jsonArray.add(JsonNull.INSTANCE);
-                    case Boolean b -> jsonArray.add(b);
-                    case Number number -> jsonArray.add(number);
-                    case Character c -> jsonArray.add(c);
-                    case String ignored -> jsonArray.add(object.toString());
-                    case Timestamp ignored -> jsonArray.add(object.toString());
-                    default -> {
+        StringWriter stringWriter = new StringWriter();
+
+        try (JsonWriter jsonWriter = JsonValues.writer(stringWriter)) {
+            jsonWriter.beginArray();
+
+            if (customType) {
+                AbstractType abstractType = type != null ? this.abstractDatabase.getDataType(type) : null;
+
+                for (Object object : list) {
+                    if (object == null) jsonWriter.nullValue();
+                    else {
+                        if (abstractType != null) {
+                            jsonWriter.value(abstractType.setResult(object));
+                        } else {
+                            throw new UnhandledDataTypeException(object.getClass());
+                        }
                     }
                 }
+            } else {
+                for (Object object : list) JsonValues.write(jsonWriter, object); // Primitive type or String
             }
+
+            jsonWriter.endArray();
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
         }
 
-        return new Gson().toJson(jsonArray);
+        return stringWriter.toString();
     }
 
     public Object getResult(String value, Type[] genericTypes) {
@@ -193,90 +188,24 @@ public class ListType extends AbstractType {
             return list;
         }
 
-        JsonElement jsonMain = JsonParser.parseString(value);
+        try (JsonReader jsonReader = JsonValues.reader(value)) {
+            jsonReader.beginArray();
 
-        JsonArray jsonArray = jsonMain.getAsJsonArray();
-        Iterator<JsonElement> iterator = jsonArray.iterator();
+            if (primitiveWrapper == IncludedTypes.Unknown) {
+                AbstractType abstractType = this.abstractDatabase.getDataType(genericTypes[0].getTypeName());
+                Type[] nestedTypes = genericTypes.length > 1 ? Arrays.copyOfRange(genericTypes, 1, genericTypes.length) : null;
 
-        if (primitiveWrapper == IncludedTypes.Unknown) {
-            AbstractType abstractType = this.abstractDatabase.getDataType(genericTypes[0].getTypeName());
-            while (iterator.hasNext()) {
-                JsonElement jsonElement = iterator.next();
-                list.add(jsonElement.isJsonNull() ? null : abstractType.getResult(jsonElement.getAsString(), genericTypes.length > 1 ? Arrays.copyOfRange(genericTypes, 1, genericTypes.length) : null));
+                while (jsonReader.hasNext()) {
+                    String element = JsonValues.readString(jsonReader);
+                    list.add(element == null ? null : abstractType.getResult(element, nestedTypes));
+                }
+            } else {
+                while (jsonReader.hasNext()) list.add(JsonValues.read(jsonReader, primitiveWrapper));
             }
-        } else {
-            switch (primitiveWrapper) {
-                case Boolean:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsBoolean());
-                    }
-
-                    break;
-                case Byte:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsByte());
-                    }
-
-                    break;
-                case Char:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsString().charAt(0));
-                    }
-
-                    break;
-                case Double:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsDouble());
-                    }
 
-                    break;
-                case Float:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsFloat());
-                    }
-
-                    break;
-                case Int:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsInt());
-                    }
-
-                    break;
-                case Long:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsLong());
-                    }
-
-                    break;
-                case Short:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsShort());
-                    }
-
-                    break;
-                case String:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : jsonElement.getAsString());
-                    }
-
-                    break;
-                case Timestamp:
-                    while (iterator.hasNext()) {
-                        JsonElement jsonElement = iterator.next();
-                        list.add(jsonElement.isJsonNull() ? null : Timestamp.valueOf(jsonElement.getAsString()));
-                    }
-
-                    break;
-            }
+            jsonReader.endArray();
+        } catch (IOException exc) {
+            throw JsonValues.malformed(exc);
         }
 
         return list;
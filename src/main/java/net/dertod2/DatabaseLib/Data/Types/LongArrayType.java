@@ -0,0 +1,35 @@
+package net.dertod2.DatabaseLib.Data.Types;
+
+/**
+ * Saves long[] columns like a list of longs
+ */
+public class LongArrayType extends NumberArrayType {
+
+    public LongArrayType() {
+        super(long[].class);
+    }
+
+    public String setResult(Object value) {
+        if (value == null) return null;
+
+        long[] array = (long[]) value;
+        StringBuilder stringBuilder = new StringBuilder(array.length * 8 + 2).append('[');
+
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) stringBuilder.append(',');
+            stringBuilder.append(array[i]);
+        }
+
+        return stringBuilder.append(']').toString();
+    }
+
+    Object decode(String value, Elements elements, int length) {
+        long[] array = new long[length];
+
+        for (int i = 0; i < length && elements.next(); i++) {
+            if (!elements.isNull()) array[i] = Long.parseLong(value, elements.start, elements.stop, 10);
+        }
+
+        return array;
+    }
+}
@@ -0,0 +1,102 @@
+package net.dertod2.DatabaseLib.Data.Types;
+
+import java.lang.reflect.Type;
+
+/**
+ * The base for primitive number array columns. The arrays are saved in the json layout of the list type, so a List&lt;Integer&gt;
+ * column can become an int[] column without converting the saved values. Decoding works directly on the text without boxing.
+ */
+abstract class NumberArrayType extends AbstractType {
+    private static final char OLD_SEPARATOR = '¶';
+
+    NumberArrayType(Class<?> arrayClass) {
+        super(arrayClass.getTypeName(), arrayClass.getName());
+    }
+
+    public Object getResult(String value, Type[] genericTypes) {
+        if (value == null || value.equalsIgnoreCase("NULL")) return null;
+
+        Elements elements = new Elements(value);
+        return this.decode(value, elements, elements.count());
+    }
+
+    /**
+     * Creates the array out of the elements of the text
+     *
+     * @param length The number of elements
+     */
+    abstract Object decode(String value, Elements elements, int length);
+
+    /**
+     * Walks over the elements of a json array or the old ¶ separated layout without creating substrings
+     */
+    static final class Elements {
+        private final String value;
+        private final char separator;
+        private final int end;
+
+        private int position;
+        int start;
+        int stop;
+
+        private Elements(String value) {
+            this.value = value;
+
+            int open = value.indexOf('[');
+            if (open >= 0) {
+                this.separator = ',';
+                this.position = open + 1;
+                this.end = Math.max(this.position, value.lastIndexOf(']'));
+            } else {
+                this.separator = NumberArrayType.OLD_SEPARATOR;
+                this.position = 0;
+                this.end = value.length();
+            }
+        }
+
+        private int count() {
+            boolean empty = true;
+            int count = 1;
+
+            for (int i = this.position; i < this.end; i++) {
+                char c = this.value.charAt(i);
+
+                if (c == this.separator) count++;
+                else if (!Character.isWhitespace(c)) empty = false;
+            }
+
+            return empty ? 0 : count;
+        }
+
+        /**
+         * Moves to the next element, setting start and stop around it without whitespace and quotes
+         *
+         * @return false when there are no more elements
+         */
+        boolean next() {
+            if (this.position > this.end) return false;
+
+            int separator = this.value.indexOf(this.separator, this.position);
+            if (separator < 0 || separator > this.end) separator = this.end;
+
+            int start = this.position;
+            int stop = separator;
+
+            while (start < stop && (Character.isWhitespace(this.value.charAt(start)) || this.value.charAt(start) == '"')) start++;
+            while (stop > start && (Character.isWhitespace(this.value.charAt(stop - 1)) || this.value.charAt(stop - 1) == '"')) stop--;
+
+            this.start = start;
+            this.stop = stop;
+            this.position = separator + 1;
+
+            return true;
+        }
+
+        /**
+         * Wherever the current element is null, which primitive arrays store as 0
+         */
+        boolean isNull() {
+            return this.start == this.stop || (this.stop - this.start == 4 && this.value.regionMatches(true, this.start, "null", 0, 4));
+        }
+    }
+}
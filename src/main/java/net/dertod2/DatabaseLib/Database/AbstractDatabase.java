@@ -5,7 +5,10 @@ import net.dertod2.DatabaseLib.Data.MySQLHandler;
 import net.dertod2.DatabaseLib.Data.PostGREHandler;
 import net.dertod2.DatabaseLib.Data.SQLiteHandler;
 import net.dertod2.DatabaseLib.Data.Types.AbstractType;
+import net.dertod2.DatabaseLib.Data.Types.DoubleArrayType;
+import net.dertod2.DatabaseLib.Data.Types.IntArrayType;
 import net.dertod2.DatabaseLib.Data.Types.ListType;
+import net.dertod2.DatabaseLib.Data.Types.LongArrayType;
 import net.dertod2.DatabaseLib.Data.Types.MapType;
 import net.dertod2.DatabaseLib.Data.Types.UniqueIdType;
 
@@ -75,6 +78,9 @@ public abstract class AbstractDatabase {
         this.addDataType(new UniqueIdType(), true);
         this.addDataType(new ListType(), true); // To support one-dim lists
         this.addDataType(new MapType(), true); // To support one-dim maps
+        this.addDataType(new IntArrayType(), true); // Number arrays without boxing
+        this.addDataType(new LongArrayType(), true);
+        this.addDataType(new DoubleArrayType(), true);
     }
 
     /**
@@ -36,6 +36,7 @@ public abstract class PooledDatabase extends DriverDatabase {
         Connection connection = this.getConnection();
         if (connection != null && connection.isValid(1))
             this.logger.fine("Test connection successfully fetched out of connection pool.");
+        if (connection != null) connection.close();
     }
 
     public PooledDatabase(String host, Integer port, String database, String username, String password) throws SQLException {
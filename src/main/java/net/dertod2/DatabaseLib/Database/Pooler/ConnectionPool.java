@@ -4,26 +4,40 @@ import com.google.common.collect.ImmutableList;
 import net.dertod2.DatabaseLib.Database.PooledDatabase;
 import net.dertod2.DatabaseLib.Exceptions.NoPooledConnectionAvailableException;
 
+import java.lang.ref.WeakReference;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
- * The Connection pool handler to minimize database overload.
+ * The Connection pool handler to minimize database overload.<br />
+ * Connections are fetched by switching their state, so fetching and returning never copies or locks the connection list.
+ * Threads that must wait for a returned connection are queued in arrival order and parked, without monitors, so waiting virtual threads don't pin their carrier.
  */
 public class ConnectionPool implements Runnable {
+    private static final StackWalker CALLER_WALKER = StackWalker.getInstance();
+    private static final String LIBRARY_PACKAGE = "net.dertod2.DatabaseLib.";
+
     private final PooledDatabase pooledDatabase;
 
     private final PoolSettings poolSettings;
     private final PoolStatistics poolStatistics;
 
-    private final List<PooledConnection> availableList = new CopyOnWriteArrayList<>(); //new ArrayList<PooledConnection>();
-    private final List<PooledConnection> loanedList = new CopyOnWriteArrayList<>(); // new ArrayList<PooledConnection>();
-    private final Object informer = new Object();
+    private final List<PooledConnection> connectionList = new CopyOnWriteArrayList<>(); // Only changes when connections are opened or closed
+    private final ThreadLocal<WeakReference<PooledConnection>> lastConnection = new ThreadLocal<>();
+    private final ReentrantLock waitLock = new ReentrantLock(); // Guards the waiter queue, never held while waiting
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>(); // FIFO: the longest waiting thread gets the connection first
+    private final AtomicInteger waitingThreads = new AtomicInteger(); // Counted before the waiter scans, so a releasing thread always notices it
+    private final AtomicInteger totalConnections = new AtomicInteger(); // Includes connections that are currently opened
     private volatile long lastConnectionFetched;
 
     /**
@@ -84,111 +98,76 @@ public class ConnectionPool implements Runnable {
         this.pooledDatabase.logger.finest("Working on: Thread Start");
         long startNanos = System.currentTimeMillis();
 
-        List<PooledConnection> removableList = new ArrayList<>();
-
         try {
-            // Work loaned Connections
-
+            // Work loaned Connections - returned connections are handed back by PooledConnection.close()
             this.pooledDatabase.logger.finest("Working on: Loaned Connections");
-            for (PooledConnection pooledConnection : this.loanedList) {
-                try {
-                    if (pooledConnection.returnToPool) { // Returns connection to the Pool
-                        pooledConnection.isInPool = true;
-
-                        pooledConnection.autoClose = true;
-                        pooledConnection.currentUser = "None";
+            for (PooledConnection pooledConnection : this.connectionList) {
+                if (pooledConnection.getState() != PooledConnection.STATE_LOANED) continue;
 
-                        removableList.add(pooledConnection);
-                        this.availableList.add(pooledConnection);
-
-                        this.poolStatistics.returnedToPool++;
+                try {
+                    if (pooledConnection.getLoanedTime() > this.poolSettings.maxLoanedTime && pooledConnection.autoClose) {
+                        if (pooledConnection.compareAndSetState(PooledConnection.STATE_LOANED, PooledConnection.STATE_REMOVED)) {
+                            this.remove(pooledConnection);
+                            this.poolStatistics.maxLoanedTimeReached.incrementAndGet();
 
-                        this.pooledDatabase.logger.finest("Returned Connection to the pool (fetcher executed close method)...");
-                    } else if (pooledConnection.getLoanedTime() > this.poolSettings.maxLoanedTime && pooledConnection.autoClose) {
-                        try {
-                            pooledConnection.rawConnection.close();
-                        } catch (SQLException ignored) {
+                            this.pooledDatabase.logger.log(Level.WARNING, "Force closed pooled connection of '" + pooledConnection.getFetcher() + "' 'cause of maxLoanedTime reached...", pooledConnection.fetchTrace);
                         }
-                        removableList.add(pooledConnection);
-                        this.poolStatistics.maxLoanedTimeReached++;
-
-                        this.pooledDatabase.logger.finest("Force closed pooled connection 'cause of maxLoanedTime reached...");
                     }
                 } catch (Exception exc) {
                     this.pooledDatabase.logger.log(Level.SEVERE, "Connection Pool Worker: Loaned", exc);
                 }
             }
 
-            this.pooledDatabase.logger.finest("Working on: Removable Connections");
-            for (PooledConnection pooledConnection : removableList) {
-                this.loanedList.remove(pooledConnection);
-            }
-
-            removableList.clear();
-
             // Work available Connections
             this.pooledDatabase.logger.finest("Working on: Available Connections");
-            for (PooledConnection pooledConnection : this.availableList) {
+            for (PooledConnection pooledConnection : this.connectionList) {
+                if (!pooledConnection.compareAndSetState(PooledConnection.STATE_AVAILABLE, PooledConnection.STATE_RESERVED)) continue;
+
+                boolean removable = false;
                 try {
                     if (pooledConnection.getLifetime() >= this.poolSettings.maxLifeTime) {
-                        removableList.add(pooledConnection);
-                        this.poolStatistics.maxLifeTimeReached++;
+                        removable = true;
+                        this.poolStatistics.maxLifeTimeReached.incrementAndGet();
 
                         this.pooledDatabase.logger.finest("Closed pooled connection 'cause of maxLifetime reached...");
                     } else if (pooledConnection.getIdleTime() >= this.poolSettings.maxIdleTime) {
-                        removableList.add(pooledConnection);
-                        this.poolStatistics.maxIdleTimeReached++;
+                        removable = true;
+                        this.poolStatistics.maxIdleTimeReached.incrementAndGet();
 
                         this.pooledDatabase.logger.finest("Closed pooled connection 'cause of maxIdleTime reached...");
                     } else if (!pooledConnection.rawConnection.isValid(1)) {
-                        removableList.add(pooledConnection);
-                        this.poolStatistics.invalidConnection++;
+                        removable = true;
+                        this.poolStatistics.invalidConnection.incrementAndGet();
 
                         this.pooledDatabase.logger.finest("Closed pooled connection 'cause of invalid raw connection...");
                     }
                 } catch (Exception ignored) {
                 }
-            }
 
-            this.pooledDatabase.logger.finest("Working on: Invalid Connections");
-            for (PooledConnection pooledConnection : removableList) {
-                try {
-                    pooledConnection.rawConnection.close();
-                } catch (SQLException ignored) {
+                if (removable) {
+                    pooledConnection.setState(PooledConnection.STATE_REMOVED);
+                    this.remove(pooledConnection);
+                } else {
+                    this.release(pooledConnection);
                 }
-                this.availableList.remove(pooledConnection); // Remove from pool
             }
 
-            removableList.clear();
-
             // Check Pool Size
             this.pooledDatabase.logger.finest("Working on: Pool Size");
             if (this.getLastFetchTime() < this.poolSettings.startSleepMode) {
-                while (this.availableList.size() < this.poolSettings.minPoolSize) {
-                    if ((this.availableList.size() + this.loanedList.size()) >= this.poolSettings.maxPoolSize) {
-                        this.poolStatistics.maxPoolSizeReached++;
-                        break;
-                    }
-
-                    Connection connection = this.startConnection();
-                    if (connection != null) {
-                        this.poolStatistics.openedConnections++;
-                        this.availableList.add(new PooledConnection(this, connection));
+                while (this.getAvailableConnections() < this.poolSettings.minPoolSize) {
+                    PooledConnection pooledConnection = this.openConnection(PooledConnection.STATE_RESERVED);
+                    if (pooledConnection == null) break;
 
-                        this.pooledDatabase.logger.finest("Opened new pooled connection cause not enough available connections");
-                    }
+                    this.release(pooledConnection);
+                    this.pooledDatabase.logger.finest("Opened new pooled connection cause not enough available connections");
                 }
             }
 
-            // Set Force Watch to false, in case it was set to true
-            synchronized (this.informer) {
-                this.informer.notifyAll();
-            }
-
             // Wait before check again
             this.pooledDatabase.logger.finest("Working on: Statistics");
             this.poolStatistics.lastWatcherDuration = System.currentTimeMillis() - startNanos;
-            this.poolStatistics.watcherRuns++;
+            this.poolStatistics.watcherRuns.incrementAndGet();
         } catch (Exception exc) {
             this.pooledDatabase.logger.log(Level.WARNING, "Connection Pool Worker: Statistics", exc);
         }
@@ -204,62 +183,231 @@ public class ConnectionPool implements Runnable {
     }
 
     /**
-     * Returns a Connection out of the Pool
-     * Warning: When no connection is available but the Pool can open more connections, this will end in a Thread lock
-     * When no connections are available, this will throw an Exception.
+     * Opens a new connection when the pool has not reached the maximum pool size
      *
-     * @return A new Connection out of the connection pool
+     * @param state The state of the new connection
+     * @return The new connection or null when the pool is full or the database can't be reached
      */
-    public Connection getConnection() {
-        this.lastConnectionFetched = System.currentTimeMillis();
+    private PooledConnection openConnection(int state) {
+        int total;
+        do {
+            total = this.totalConnections.get();
+            if (total >= this.poolSettings.maxPoolSize) {
+                this.poolStatistics.maxPoolSizeReached.incrementAndGet();
+                return null;
+            }
+        } while (!this.totalConnections.compareAndSet(total, total + 1));
 
-        if (this.availableList.isEmpty()) {
-            int openedConnections = this.loanedList.size();
+        Connection connection = this.startConnection();
+        if (connection == null) {
+            this.totalConnections.decrementAndGet();
+            return null;
+        }
 
-            if (openedConnections >= this.poolSettings.maxPoolSize) {
-                this.poolStatistics.maxPoolSizeReachedWhileFetching++;
-                throw new NoPooledConnectionAvailableException();
+        PooledConnection pooledConnection = new PooledConnection(this, connection, state);
+        this.connectionList.add(pooledConnection);
+        this.poolStatistics.openedConnections.incrementAndGet();
+
+        return pooledConnection;
+    }
+
+    /**
+     * Closes the raw connection and removes it out of the pool. The connection must be in the removed state.
+     */
+    private void remove(PooledConnection pooledConnection) {
+        try {
+            pooledConnection.rawConnection.close();
+        } catch (SQLException ignored) {
+        }
+
+        if (this.connectionList.remove(pooledConnection)) this.totalConnections.decrementAndGet();
+    }
+
+    /**
+     * Takes a connection back from the fetcher. Resets the state the fetcher changed and closes the connection when it is no longer usable.
+     * Calling this for a connection that is not loaned does nothing.
+     *
+     * @param pooledConnection The loaned connection
+     */
+    protected void returnConnection(PooledConnection pooledConnection) {
+        if (!pooledConnection.compareAndSetState(PooledConnection.STATE_LOANED, PooledConnection.STATE_RESERVED)) return;
+
+        try {
+            if (pooledConnection.rawConnection.isClosed()) throw new SQLException("The raw connection was closed by the fetcher");
+            pooledConnection.resetState();
+        } catch (SQLException exc) {
+            pooledConnection.setState(PooledConnection.STATE_REMOVED);
+            this.remove(pooledConnection);
+            this.poolStatistics.invalidConnection.incrementAndGet();
+
+            this.pooledDatabase.logger.log(Level.FINEST, "Closed returned connection 'cause it could not be reset...", exc);
+            return;
+        }
+
+        pooledConnection.autoClose = true;
+        pooledConnection.currentUser = null;
+        pooledConnection.fetchTrace = null;
+
+        this.release(pooledConnection);
+        this.poolStatistics.returnedToPool.incrementAndGet();
+
+        this.pooledDatabase.logger.finest("Returned Connection to the pool (fetcher executed close method)...");
+    }
+
+    /**
+     * Makes the reserved connection available again or hands it directly over to the longest waiting thread, if there is one.
+     */
+    private void release(PooledConnection pooledConnection) {
+        if (this.waitingThreads.get() == 0) {
+            pooledConnection.setState(PooledConnection.STATE_AVAILABLE);
+
+            // A thread that started to wait meanwhile may have scanned before the connection was available
+            if (this.waitingThreads.get() == 0 || !pooledConnection.compareAndSetState(PooledConnection.STATE_AVAILABLE, PooledConnection.STATE_RESERVED)) return;
+        }
+
+        this.waitLock.lock();
+        try {
+            Waiter waiter = this.waiters.pollFirst();
+            if (waiter != null) {
+                this.waitingThreads.decrementAndGet();
+
+                pooledConnection.setState(PooledConnection.STATE_LOANED);
+                waiter.pooledConnection = pooledConnection;
+                LockSupport.unpark(waiter.thread);
             } else {
-                this.poolStatistics.threadLock++;
-                synchronized (this.informer) {
-                    try {
-                        this.informer.wait(10000);
-                    } catch (InterruptedException ignored) {
-                    }
-                }
+                pooledConnection.setState(PooledConnection.STATE_AVAILABLE); // Under the lock, so a thread queued afterwards finds it by scanning
             }
+        } finally {
+            this.waitLock.unlock();
         }
+    }
 
-        PooledConnection pooledConnection = this.availableList.removeFirst();
-        pooledConnection.loaned = System.currentTimeMillis();
-        pooledConnection.returnToPool = false;
-        pooledConnection.isInPool = false;
+    /**
+     * Returns a Connection out of the Pool
+     * When no connection is available but the Pool can open more connections, a new connection will be opened.
+     * Otherwise this waits up to the fetch timeout for a returned connection and throws an Exception when none was returned.
+     *
+     * @return A new Connection out of the connection pool
+     */
+    public Connection getConnection() {
+        this.lastConnectionFetched = System.currentTimeMillis();
 
-        pooledConnection.currentUser = this.getFetcher(Thread.currentThread().getStackTrace());
+        PooledConnection pooledConnection = this.borrow();
+        pooledConnection.loaned = System.currentTimeMillis();
 
-        this.loanedList.add(pooledConnection);
+        this.setFetcher(pooledConnection);
 
+        this.lastConnection.set(new WeakReference<>(pooledConnection));
         this.pooledDatabase.logger.finest("Fetched connection out of pool...");
 
         return pooledConnection;
     }
 
-    private String getFetcher(StackTraceElement[] stackTrace) {
-        String fetcher = "Unknown";
+    private PooledConnection borrow() {
+        // The connection this thread used the last time is most likely still available
+        WeakReference<PooledConnection> reference = this.lastConnection.get();
+        if (reference != null) {
+            PooledConnection pooledConnection = reference.get();
+            if (pooledConnection != null && pooledConnection.compareAndSetState(PooledConnection.STATE_AVAILABLE, PooledConnection.STATE_LOANED))
+                return pooledConnection;
+        }
+
+        PooledConnection pooledConnection = this.scan();
+        if (pooledConnection != null) return pooledConnection;
+
+        pooledConnection = this.openConnection(PooledConnection.STATE_LOANED);
+        if (pooledConnection != null) return pooledConnection;
 
-        for (StackTraceElement stackTraceElement : stackTrace) {
-            String className = stackTraceElement.getClassName();
+        Waiter waiter = new Waiter(Thread.currentThread());
+
+        this.waitLock.lock();
+        try {
+            if (this.waitingThreads.incrementAndGet() > this.poolSettings.maxWaiting) {
+                this.waitingThreads.decrementAndGet();
+                this.poolStatistics.maxPoolSizeReachedWhileFetching.incrementAndGet();
+                throw new NoPooledConnectionAvailableException();
+            }
+
+            // A connection may be released before this thread was counted as waiting
+            pooledConnection = this.scan();
+            if (pooledConnection != null) {
+                this.waitingThreads.decrementAndGet();
+                return pooledConnection;
+            }
+
+            this.waiters.addLast(waiter);
+        } finally {
+            this.waitLock.unlock();
+        }
 
-            if (className.contains("net.dertod2") && !className.contains("DatabaseLib")) {
-                int beginIndex = className.indexOf(".", className.indexOf(".")) + 1;
-                int endIndex = className.indexOf(".", beginIndex);
+        this.poolStatistics.threadLock.incrementAndGet();
 
-                fetcher = className.substring(beginIndex, endIndex);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.poolSettings.fetchTimeout);
+        boolean interrupted = false;
+
+        while (waiter.pooledConnection == null) {
+            long timeout = deadline - System.nanoTime();
+            if (timeout <= 0) break;
+
+            LockSupport.parkNanos(this, timeout);
+            if (Thread.interrupted()) {
+                interrupted = true;
                 break;
             }
         }
 
-        return fetcher;
+        if (waiter.pooledConnection == null) {
+            this.waitLock.lock();
+            try {
+                // The connection may be handed over right before the waiter is removed
+                if (waiter.pooledConnection == null && this.waiters.remove(waiter)) this.waitingThreads.decrementAndGet();
+            } finally {
+                this.waitLock.unlock();
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+        if (waiter.pooledConnection != null) return waiter.pooledConnection;
+
+        this.poolStatistics.fetchTimeoutReached.incrementAndGet();
+        throw new NoPooledConnectionAvailableException();
+    }
+
+    private PooledConnection scan() {
+        for (PooledConnection pooledConnection : this.connectionList) {
+            if (pooledConnection.compareAndSetState(PooledConnection.STATE_AVAILABLE, PooledConnection.STATE_LOANED))
+                return pooledConnection;
+        }
+
+        return null;
+    }
+
+    private void setFetcher(PooledConnection pooledConnection) {
+        FetcherMode fetcherMode = this.poolSettings.fetcherMode;
+        if (fetcherMode == FetcherMode.Off) return;
+
+        pooledConnection.currentUser = Fetcher.get();
+
+        if (fetcherMode == FetcherMode.StackTrace || (fetcherMode == FetcherMode.Sampled && ThreadLocalRandom.current().nextInt(Math.max(1, this.poolSettings.fetcherSampleRate)) == 0)) {
+            pooledConnection.fetchTrace = new Throwable("Connection fetched out of the pool");
+        } else if (fetcherMode == FetcherMode.Caller && pooledConnection.currentUser == null) {
+            StackWalker.StackFrame callerFrame = ConnectionPool.CALLER_WALKER.walk(frames -> frames.filter(frame -> !frame.getClassName().startsWith(ConnectionPool.LIBRARY_PACKAGE)).findFirst().orElse(null));
+            if (callerFrame != null) pooledConnection.fetchTrace = new CallerTrace(callerFrame.toStackTraceElement());
+        }
+    }
+
+    /**
+     * A trace holding only the calling frame, without filling in the complete stack trace
+     */
+    private static final class CallerTrace extends Throwable {
+        private CallerTrace(StackTraceElement callerFrame) {
+            super("Connection fetched out of the pool");
+            this.setStackTrace(new StackTraceElement[]{callerFrame});
+        }
+
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
     }
 
     /**
@@ -268,7 +416,7 @@ public class ConnectionPool implements Runnable {
      * @return int
      */
     public int getAvailableConnections() {
-        return this.availableList.size();
+        return this.countConnections(PooledConnection.STATE_AVAILABLE);
     }
 
     /**
@@ -277,7 +425,26 @@ public class ConnectionPool implements Runnable {
      * @return int
      */
     public int getLoanedConnections() {
-        return this.loanedList.size();
+        return this.countConnections(PooledConnection.STATE_LOANED);
+    }
+
+    /**
+     * Returns the number of threads waiting for a returned connection.
+     *
+     * @return int
+     */
+    public int getWaitingThreads() {
+        return this.waitingThreads.get();
+    }
+
+    private int countConnections(int state) {
+        int count = 0;
+
+        for (PooledConnection pooledConnection : this.connectionList) {
+            if (pooledConnection.getState() == state) count++;
+        }
+
+        return count;
     }
 
     /**
@@ -305,7 +472,7 @@ public class ConnectionPool implements Runnable {
      * @return a list with all active pooled connection objects
      */
     public List<PooledConnection> getActiveConnections() {
-        return ImmutableList.<PooledConnection>builder().addAll(this.availableList).addAll(this.loanedList).build();
+        return ImmutableList.copyOf(this.connectionList);
     }
 
     /**
@@ -314,24 +481,23 @@ public class ConnectionPool implements Runnable {
      * @return Statistics element with all remaining fetched statistics.
      */
     public PoolStatistics shutdown() {
-        for (PooledConnection pooledConnection : this.availableList) {
-            try {
-                pooledConnection.rawConnection.close();
-            } catch (SQLException ignored) {
-            }
-        }
-
-        for (PooledConnection pooledConnection : this.loanedList) {
-            try {
-                pooledConnection.rawConnection.close();
-            } catch (SQLException ignored) {
-            }
+        for (PooledConnection pooledConnection : this.connectionList) {
+            pooledConnection.setState(PooledConnection.STATE_REMOVED);
+            this.remove(pooledConnection);
         }
 
-        this.availableList.clear();
-        this.loanedList.clear();
-
         return this.poolStatistics;
     }
 
-}
\ No newline at end of file
+    /**
+     * A thread waiting for a returned connection
+     */
+    private static final class Waiter {
+        private final Thread thread;
+        private volatile PooledConnection pooledConnection; // Set by the releasing thread
+
+        private Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
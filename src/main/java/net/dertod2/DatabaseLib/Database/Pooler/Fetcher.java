@@ -0,0 +1,58 @@
+package net.dertod2.DatabaseLib.Database.Pooler;
+
+/**
+ * Allows naming the code that fetches connections on the current thread.<br />
+ * The name is shown by {@link PooledConnection#getFetcher()} and when the pool force closes a connection that was never returned.
+ */
+public final class Fetcher {
+    private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+    private Fetcher() {
+    }
+
+    /**
+     * Sets the name for all connections fetched by this thread until {@link #clear()} is called
+     *
+     * @param name The name of the fetcher
+     */
+    public static void set(String name) {
+        Fetcher.current.set(name);
+    }
+
+    /**
+     * Removes the name of the current thread
+     */
+    public static void clear() {
+        Fetcher.current.remove();
+    }
+
+    /**
+     * Returns the name set for the current thread
+     *
+     * @return The name or null when no name is set
+     */
+    public static String get() {
+        return Fetcher.current.get();
+    }
+
+    /**
+     * Runs the task with the given fetcher name and restores the previous name afterwards
+     *
+     * @param name     The name of the fetcher
+     * @param runnable The task that fetches connections
+     */
+    public static void run(String name, Runnable runnable) {
+        String previous = Fetcher.current.get();
+        Fetcher.current.set(name);
+
+        try {
+            runnable.run();
+        } finally {
+            if (previous != null) {
+                Fetcher.current.set(previous);
+            } else {
+                Fetcher.current.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package net.dertod2.DatabaseLib.Database.Pooler;
+
+/**
+ * Defines how the pool finds out who fetched a connection. Used for statistics and to find connections that are never returned.
+ */
+public enum FetcherMode {
+    /**
+     * The fetcher is not recorded at all.
+     */
+    Off,
+    /**
+     * Only the name set over {@link Fetcher#set(String)} is recorded. Costs nothing when no name is set.
+     */
+    Explicit,
+    /**
+     * Like Explicit, but fetches without a name record the first calling frame outside this library.
+     * Walks a few stack frames on each untagged fetch, so leaks can be traced without naming the fetchers.
+     */
+    Caller,
+    /**
+     * Like Explicit, but additionally records the stack trace of a sampled part of all fetches.
+     */
+    Sampled,
+    /**
+     * Records the stack trace of every fetch. Expensive, only use this to find a connection leak.
+     */
+    StackTrace
+}
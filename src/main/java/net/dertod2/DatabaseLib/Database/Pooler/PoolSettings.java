@@ -21,6 +21,14 @@ public class PoolSettings {
 
     protected long watcherTimer = TimeUnit.MILLISECONDS.toMillis(250);
 
+    protected int maxWaiting = 1000;
+    protected long fetchTimeout = TimeUnit.SECONDS.toMillis(10);
+
+    protected FetcherMode fetcherMode = FetcherMode.Explicit;
+    protected int fetcherSampleRate = 100;
+
+    protected int statementCacheSize = 64;
+
     public void setUrl(String jdbcUrl) {
         this.jdbcUrl = jdbcUrl;
     }
@@ -103,4 +111,61 @@ public class PoolSettings {
     public void setWatcherTime(long watcherTimeMS) {
         this.watcherTimer = watcherTimeMS;
     }
-}
\ No newline at end of file
+
+    public int getMaximumWaiting() {
+        return this.maxWaiting;
+    }
+
+    /**
+     * Sets how many threads may wait at the same time for a returned connection.<br />
+     * Every further fetch fails immediately when the pool is exhausted.
+     */
+    public void setMaximumWaiting(int maxWaiting) {
+        this.maxWaiting = maxWaiting;
+    }
+
+    public long getFetchTimeout() {
+        return this.fetchTimeout;
+    }
+
+    /**
+     * Sets how long a thread waits for a returned connection before the fetch fails.<br />
+     * Waiting threads are served in the order they started waiting.
+     */
+    public void setFetchTimeout(long fetchTimeoutMS) {
+        this.fetchTimeout = fetchTimeoutMS;
+    }
+
+    public FetcherMode getFetcherMode() {
+        return this.fetcherMode;
+    }
+
+    /**
+     * Sets how the pool records who fetched a connection
+     */
+    public void setFetcherMode(FetcherMode fetcherMode) {
+        this.fetcherMode = fetcherMode;
+    }
+
+    public int getFetcherSampleRate() {
+        return this.fetcherSampleRate;
+    }
+
+    /**
+     * Sets that one of this many fetches records its stack trace when the {@link FetcherMode#Sampled} mode is used
+     */
+    public void setFetcherSampleRate(int fetcherSampleRate) {
+        this.fetcherSampleRate = fetcherSampleRate;
+    }
+
+    public int getStatementCacheSize() {
+        return this.statementCacheSize;
+    }
+
+    /**
+     * Sets how many prepared statements each connection keeps open for reuse. Use 0 to disable the statement cache.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+}
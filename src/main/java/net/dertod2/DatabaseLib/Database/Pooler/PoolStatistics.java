@@ -1,19 +1,27 @@
 package net.dertod2.DatabaseLib.Database.Pooler;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 public class PoolStatistics {
 
-    protected long lastWatcherDuration;
-    protected int watcherRuns = 0;
-    protected int openedConnections = 0;
+    protected volatile long lastWatcherDuration;
+    protected final AtomicInteger watcherRuns = new AtomicInteger();
+    protected final AtomicInteger openedConnections = new AtomicInteger();
+
+    protected final AtomicInteger threadLock = new AtomicInteger();
+    protected final AtomicInteger maxPoolSizeReachedWhileFetching = new AtomicInteger();
+    protected final AtomicInteger maxPoolSizeReached = new AtomicInteger();
+    protected final AtomicInteger invalidConnection = new AtomicInteger();
+    protected final AtomicInteger maxLifeTimeReached = new AtomicInteger();
+    protected final AtomicInteger maxIdleTimeReached = new AtomicInteger();
+    protected final AtomicInteger returnedToPool = new AtomicInteger();
+    protected final AtomicInteger maxLoanedTimeReached = new AtomicInteger();
+    protected final AtomicInteger fetchTimeoutReached = new AtomicInteger();
 
-    protected int threadLock = 0;
-    protected int maxPoolSizeReachedWhileFetching = 0;
-    protected int maxPoolSizeReached = 0;
-    protected int invalidConnection = 0;
-    protected int maxLifeTimeReached = 0;
-    protected int maxIdleTimeReached = 0;
-    protected int returnedToPool = 0;
-    protected int maxLoanedTimeReached = 0;
+    protected final LongAdder statementCacheHits = new LongAdder();
+    protected final LongAdder statementCacheMisses = new LongAdder();
+    protected final LongAdder statementCacheEvictions = new LongAdder();
 
     protected PoolStatistics() {
     }
@@ -23,8 +31,8 @@ public class PoolStatistics {
      *
      * @return the lastWatcherDuration
      */
-    public synchronized long getLastWatcherDuration() {
-        return lastWatcherDuration;
+    public long getLastWatcherDuration() {
+        return this.lastWatcherDuration;
     }
 
     /**
@@ -32,8 +40,8 @@ public class PoolStatistics {
      *
      * @return the watcherRuns
      */
-    public synchronized int getWatcherRuns() {
-        return watcherRuns;
+    public int getWatcherRuns() {
+        return this.watcherRuns.get();
     }
 
     /**
@@ -41,8 +49,8 @@ public class PoolStatistics {
      *
      * @return the openedConnections
      */
-    public synchronized int getOpenedConnections() {
-        return openedConnections;
+    public int getOpenedConnections() {
+        return this.openedConnections.get();
     }
 
     /**
@@ -50,56 +58,92 @@ public class PoolStatistics {
      *
      * @return the threadLock
      */
-    public synchronized int getThreadLock() {
-        return threadLock;
+    public int getThreadLock() {
+        return this.threadLock.get();
     }
 
     /**
      * @return the maxPoolSizeReachedWhileFetching
      */
-    public synchronized int getMaxPoolSizeReachedWhileFetching() {
-        return maxPoolSizeReachedWhileFetching;
+    public int getMaxPoolSizeReachedWhileFetching() {
+        return this.maxPoolSizeReachedWhileFetching.get();
     }
 
     /**
      * @return the maxPoolSizeReached
      */
-    public synchronized int getMaxPoolSizeReached() {
-        return maxPoolSizeReached;
+    public int getMaxPoolSizeReached() {
+        return this.maxPoolSizeReached.get();
     }
 
     /**
      * @return the invalidConnection
      */
-    public synchronized int getInvalidConnection() {
-        return invalidConnection;
+    public int getInvalidConnection() {
+        return this.invalidConnection.get();
     }
 
     /**
      * @return the maxLifeTimeReached
      */
-    public synchronized int getMaxLifeTimeReached() {
-        return maxLifeTimeReached;
+    public int getMaxLifeTimeReached() {
+        return this.maxLifeTimeReached.get();
     }
 
     /**
      * @return the maxIdleTimeReached
      */
-    public synchronized int getMaxIdleTimeReached() {
-        return maxIdleTimeReached;
+    public int getMaxIdleTimeReached() {
+        return this.maxIdleTimeReached.get();
     }
 
     /**
      * @return the returnedToPool
      */
-    public synchronized int getReturnedToPool() {
-        return returnedToPool;
+    public int getReturnedToPool() {
+        return this.returnedToPool.get();
     }
 
     /**
      * @return the maxLoanedTimeReached
      */
-    public synchronized int getMaxLoanedTimeReached() {
-        return maxLoanedTimeReached;
+    public int getMaxLoanedTimeReached() {
+        return this.maxLoanedTimeReached.get();
+    }
+
+    /**
+     * The count of fetches that waited for a returned connection until the fetch timeout ran out
+     *
+     * @return the fetchTimeoutReached
+     */
+    public int getFetchTimeoutReached() {
+        return this.fetchTimeoutReached.get();
+    }
+
+    /**
+     * The count of prepared statements that were reused out of the statement cache of a connection
+     *
+     * @return the statementCacheHits
+     */
+    public long getStatementCacheHits() {
+        return this.statementCacheHits.sum();
+    }
+
+    /**
+     * The count of prepared statements that were not inside the statement cache and had to be prepared by the database
+     *
+     * @return the statementCacheMisses
+     */
+    public long getStatementCacheMisses() {
+        return this.statementCacheMisses.sum();
+    }
+
+    /**
+     * The count of prepared statements that were closed because the statement cache of the connection was full
+     *
+     * @return the statementCacheEvictions
+     */
+    public long getStatementCacheEvictions() {
+        return this.statementCacheEvictions.sum();
     }
-}
\ No newline at end of file
+}
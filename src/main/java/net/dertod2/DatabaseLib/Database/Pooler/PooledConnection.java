@@ -1,11 +1,23 @@
 package net.dertod2.DatabaseLib.Database.Pooler;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PooledConnection implements Connection {
+    protected static final int STATE_AVAILABLE = 0;
+    protected static final int STATE_LOANED = 1;
+    protected static final int STATE_RESERVED = 2; // Checked by the watcher, can't be fetched
+    protected static final int STATE_REMOVED = 3;
+
+    private static final AtomicIntegerFieldUpdater<PooledConnection> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(PooledConnection.class, "state");
+
     protected final ConnectionPool poolReference;
 
     protected final Connection rawConnection;
@@ -14,22 +26,193 @@ public class PooledConnection implements Connection {
     protected long lastActive;
     protected long loaned;
 
-    protected boolean returnToPool = false;
-    protected boolean isInPool = true;
+    private volatile int state;
+
+    // Settings changed by the fetcher that must be reset when the connection returns to the pool
+    private boolean resetAutoCommit = false;
+    private boolean resetReadOnly = false;
+    private int defaultIsolation = -1;
+
+    // Guards the statement cache and the loaned statements, a statement may be closed by another thread than the fetcher
+    private final ReentrantLock statementLock = new ReentrantLock();
+    private final List<PooledStatement> loanedStatements = new ArrayList<>();
+
+    // Idle prepared statements, the least recently used statement will be closed when the cache is full
+    private final Map<StatementKey, PooledStatement> statementCache = new LinkedHashMap<>(16, 0.75F, true) {
+        protected boolean removeEldestEntry(Map.Entry<StatementKey, PooledStatement> eldest) {
+            if (this.size() <= PooledConnection.this.getStatementCacheSize()) return false;
+
+            PooledConnection.this.closeStatement(eldest.getValue());
+            PooledConnection.this.poolReference.getStatistics().statementCacheEvictions.increment();
+            return true;
+        }
+    };
 
     protected boolean autoClose = true;
 
-    protected String currentUser = "None";
+    protected String currentUser = null;
+    protected Throwable fetchTrace = null;
 
-    protected PooledConnection(ConnectionPool poolReference, Connection connection) {
+    protected PooledConnection(ConnectionPool poolReference, Connection connection, int state) {
         this.poolReference = poolReference;
 
         this.rawConnection = connection;
+        this.state = state;
 
         this.created = System.currentTimeMillis();
         this.lastActive = System.currentTimeMillis();
     }
 
+    protected int getState() {
+        return this.state;
+    }
+
+    protected void setState(int state) {
+        this.state = state;
+    }
+
+    protected boolean compareAndSetState(int expect, int update) {
+        return STATE_UPDATER.compareAndSet(this, expect, update);
+    }
+
+    private int getStatementCacheSize() {
+        return this.poolReference != null ? this.poolReference.getSettings().statementCacheSize : 0;
+    }
+
+    private PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+        this.lastActive = System.currentTimeMillis();
+        if (this.getStatementCacheSize() <= 0) {
+            return autoGeneratedKeys == Statement.NO_GENERATED_KEYS ? this.rawConnection.prepareStatement(sql) : this.rawConnection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        this.statementLock.lock();
+
+        try {
+            PooledStatement pooledStatement = this.statementCache.remove(new StatementKey(sql, autoGeneratedKeys));
+            if (pooledStatement != null) {
+                this.poolReference.getStatistics().statementCacheHits.increment();
+                pooledStatement.isClosed = false;
+            } else {
+                this.poolReference.getStatistics().statementCacheMisses.increment();
+                PreparedStatement rawStatement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS ? this.rawConnection.prepareStatement(sql) : this.rawConnection.prepareStatement(sql, autoGeneratedKeys);
+                pooledStatement = new PooledStatement(this, rawStatement, sql, autoGeneratedKeys);
+            }
+
+            this.loanedStatements.add(pooledStatement);
+            return pooledStatement;
+        } finally {
+            this.statementLock.unlock();
+        }
+    }
+
+    /**
+     * Puts a closed statement back into the statement cache. Closes the statement when it can't be reused or the connection isn't loaned anymore.
+     */
+    protected void returnStatement(PooledStatement pooledStatement) throws SQLException {
+        this.statementLock.lock();
+
+        try {
+            if (pooledStatement.isClosed) return;
+            pooledStatement.isClosed = true;
+
+            // Statements outlive their loan when closed after the connection was returned, the next fetcher owns the cache then
+            if (!this.loanedStatements.remove(pooledStatement) || this.getState() != STATE_LOANED || !pooledStatement.isReusable || pooledStatement.rawStatement.isClosed()) {
+                this.closeStatement(pooledStatement);
+                return;
+            }
+
+            this.resetStatement(pooledStatement);
+        } finally {
+            this.statementLock.unlock();
+        }
+    }
+
+    /**
+     * Restores the settings of the statement and puts it into the statement cache
+     */
+    private void resetStatement(PooledStatement pooledStatement) throws SQLException {
+        try {
+            // An open result set or pending batch entries would leak into the next use of the statement
+            ResultSet resultSet = pooledStatement.rawStatement.getResultSet();
+            if (resultSet != null) resultSet.close();
+
+            pooledStatement.rawStatement.clearBatch();
+            pooledStatement.rawStatement.clearParameters();
+            pooledStatement.rawStatement.clearWarnings();
+
+            if (pooledStatement.isModified) {
+                pooledStatement.rawStatement.setFetchSize(0);
+                pooledStatement.rawStatement.setFetchDirection(ResultSet.FETCH_FORWARD);
+                pooledStatement.rawStatement.setMaxRows(0); // Also resets the large max rows
+                pooledStatement.rawStatement.setMaxFieldSize(0);
+                pooledStatement.rawStatement.setQueryTimeout(0);
+                pooledStatement.rawStatement.setEscapeProcessing(true);
+                pooledStatement.rawStatement.setPoolable(true);
+                pooledStatement.isModified = false;
+            }
+        } catch (SQLException exc) {
+            this.closeStatement(pooledStatement);
+            throw exc;
+        }
+
+        // Another statement with the same sql was returned while this one was in use
+        PooledStatement previous = this.statementCache.put(new StatementKey(pooledStatement.sql, pooledStatement.autoGeneratedKeys), pooledStatement);
+        if (previous != null) this.closeStatement(previous);
+    }
+
+    private void closeStatement(PooledStatement pooledStatement) {
+        try {
+            pooledStatement.rawStatement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Closes the statements that were not closed by the fetcher before the connection was returned
+     */
+    private void closeLoanedStatements() {
+        this.statementLock.lock();
+
+        try {
+            for (PooledStatement pooledStatement : this.loanedStatements) {
+                pooledStatement.isClosed = true;
+                this.closeStatement(pooledStatement);
+            }
+
+            this.loanedStatements.clear();
+        } finally {
+            this.statementLock.unlock();
+        }
+    }
+
+    /**
+     * Restores the settings changed while the connection was loaned. Open transactions will be rolled back.
+     */
+    protected void resetState() throws SQLException {
+        this.closeLoanedStatements();
+
+        if (this.resetAutoCommit) {
+            if (!this.rawConnection.getAutoCommit()) {
+                this.rawConnection.rollback();
+                this.rawConnection.setAutoCommit(true);
+            }
+
+            this.resetAutoCommit = false;
+        }
+
+        if (this.resetReadOnly) {
+            this.rawConnection.setReadOnly(false);
+            this.resetReadOnly = false;
+        }
+
+        if (this.defaultIsolation != -1) {
+            this.rawConnection.setTransactionIsolation(this.defaultIsolation);
+            this.defaultIsolation = -1;
+        }
+
+        this.rawConnection.clearWarnings();
+    }
+
     public Connection getRawConnection() {
         return this.rawConnection;
     }
@@ -63,11 +246,44 @@ public class PooledConnection implements Connection {
     }
 
     public boolean isInPool() {
-        return this.isInPool;
+        return this.state == STATE_AVAILABLE || this.state == STATE_RESERVED;
     }
 
+    /**
+     * Returns the name of the code that fetched this connection, see {@link Fetcher} and {@link FetcherMode}
+     *
+     * @return The name of the fetcher, "None" when the connection is inside the pool or "Unknown"
+     */
     public String getFetcher() {
-        return this.currentUser;
+        if (this.currentUser != null) return this.currentUser;
+        if (this.isInPool()) return "None";
+
+        Throwable fetchTrace = this.fetchTrace;
+        if (fetchTrace == null) return "Unknown";
+
+        String fetcher = "Unknown";
+        for (StackTraceElement stackTraceElement : fetchTrace.getStackTrace()) {
+            String className = stackTraceElement.getClassName();
+
+            if (className.contains("net.dertod2") && !className.contains("DatabaseLib")) {
+                int beginIndex = className.indexOf(".", className.indexOf(".")) + 1;
+                int endIndex = className.indexOf(".", beginIndex);
+
+                fetcher = className.substring(beginIndex, endIndex);
+                break;
+            }
+        }
+
+        return fetcher;
+    }
+
+    /**
+     * Returns the stack trace recorded when this connection was fetched
+     *
+     * @return The stack trace or null when the {@link FetcherMode} didn't record one
+     */
+    public Throwable getFetchTrace() {
+        return this.fetchTrace;
     }
 
     /**
@@ -99,8 +315,7 @@ public class PooledConnection implements Connection {
     }
 
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        this.lastActive = System.currentTimeMillis();
-        return this.rawConnection.prepareStatement(sql);
+        return this.prepareCached(sql, Statement.NO_GENERATED_KEYS);
     }
 
     public CallableStatement prepareCall(String sql) throws SQLException {
@@ -117,6 +332,7 @@ public class PooledConnection implements Connection {
     }
 
     public void setAutoCommit(boolean autoCommit) throws SQLException {
+        this.resetAutoCommit = true;
         this.rawConnection.setAutoCommit(autoCommit);
     }
 
@@ -134,9 +350,12 @@ public class PooledConnection implements Connection {
      * Returns this Connection to the Connection Pool instead of closing it.
      */
     public void close() throws SQLException {
-        if (this.poolReference == null) this.rawConnection.close();
+        if (this.poolReference == null) {
+            this.rawConnection.close();
+            return;
+        }
 
-        this.returnToPool = true; // To inform the Pool Watcher
+        this.poolReference.returnConnection(this);
     }
 
     public boolean isClosed() throws SQLException {
@@ -152,6 +371,7 @@ public class PooledConnection implements Connection {
     }
 
     public void setReadOnly(boolean readOnly) throws SQLException {
+        this.resetReadOnly = true;
         this.rawConnection.setReadOnly(readOnly);
     }
 
@@ -168,6 +388,7 @@ public class PooledConnection implements Connection {
     }
 
     public void setTransactionIsolation(int level) throws SQLException {
+        if (this.defaultIsolation == -1) this.defaultIsolation = this.rawConnection.getTransactionIsolation();
         this.rawConnection.setTransactionIsolation(level);
     }
 
@@ -246,8 +467,7 @@ public class PooledConnection implements Connection {
     }
 
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        this.lastActive = System.currentTimeMillis();
-        return this.rawConnection.prepareStatement(sql, autoGeneratedKeys);
+        return this.prepareCached(sql, autoGeneratedKeys);
     }
 
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
@@ -328,4 +548,7 @@ public class PooledConnection implements Connection {
     public int getNetworkTimeout() throws SQLException {
         return this.rawConnection.getNetworkTimeout();
     }
-}
\ No newline at end of file
+
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+    }
+}
@@ -4,14 +4,32 @@ import java.sql.*;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * The single connection shared by all threads of a {@link SQLiteDatabase}.<br />
+ * A transaction started with setAutoCommit(false) owns the connection until setAutoCommit(true): other threads wait before they
+ * create statements or check the auto commit mode, so their work is never part of the transaction.
+ */
 public class SQLiteConnection implements Connection {
     protected final Connection rawConnection;
 
+    private final ReentrantLock transactionLock = new ReentrantLock(); // Held from setAutoCommit(false) until setAutoCommit(true)
+
     public SQLiteConnection(Connection connection) {
         this.rawConnection = connection;
     }
 
+    /**
+     * Waits until the transaction of another thread has ended
+     */
+    private void awaitTransaction() {
+        if (!this.transactionLock.isLocked() || this.transactionLock.isHeldByCurrentThread()) return;
+
+        this.transactionLock.lock();
+        this.transactionLock.unlock();
+    }
+
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
         return this.rawConnection.unwrap(iface);
@@ -24,16 +42,19 @@ public class SQLiteConnection implements Connection {
 
     @Override
     public Statement createStatement() throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.createStatement();
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql);
     }
 
     @Override
     public CallableStatement prepareCall(String sql) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareCall(sql);
     }
 
@@ -44,12 +65,31 @@ public class SQLiteConnection implements Connection {
 
     @Override
     public boolean getAutoCommit() throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.getAutoCommit();
     }
 
     @Override
     public void setAutoCommit(boolean autoCommit) throws SQLException {
-        this.rawConnection.setAutoCommit(autoCommit);
+        if (autoCommit) {
+            try {
+                this.rawConnection.setAutoCommit(true);
+            } finally {
+                if (this.transactionLock.isHeldByCurrentThread()) this.transactionLock.unlock();
+            }
+
+            return;
+        }
+
+        boolean locked = !this.transactionLock.isHeldByCurrentThread();
+        if (locked) this.transactionLock.lock(); // Waits for the transaction of another thread
+
+        try {
+            this.rawConnection.setAutoCommit(false);
+        } catch (SQLException | RuntimeException exc) {
+            if (locked) this.transactionLock.unlock();
+            throw exc;
+        }
     }
 
     @Override
@@ -119,16 +159,19 @@ public class SQLiteConnection implements Connection {
 
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.createStatement(resultSetType, resultSetConcurrency);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql, resultSetType, resultSetConcurrency);
     }
 
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareCall(sql, resultSetType, resultSetConcurrency);
     }
 
@@ -174,31 +217,37 @@ public class SQLiteConnection implements Connection {
 
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql, autoGeneratedKeys);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql, columnIndexes);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        this.awaitTransaction();
         return this.rawConnection.prepareStatement(sql, columnNames);
     }
 
@@ -0,0 +1,16 @@
+package net.dertod2.DatabaseLib.Exceptions;
+
+import java.io.Serial;
+
+public class LazyLoadException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = -4271630851939462417L;
+
+    public LazyLoadException(Throwable cause) {
+        super(cause);
+    }
+
+    public String getMessage() {
+        return "Failed to load the value of a lazy column: " + this.getCause().getMessage();
+    }
+}
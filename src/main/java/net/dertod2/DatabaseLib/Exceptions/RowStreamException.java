@@ -0,0 +1,16 @@
+package net.dertod2.DatabaseLib.Exceptions;
+
+import java.io.Serial;
+
+public class RowStreamException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 3184590217364512036L;
+
+    public RowStreamException(Throwable cause) {
+        super(cause);
+    }
+
+    public String getMessage() {
+        return "Failed to read the next row out of the database: " + this.getCause().getMessage();
+    }
+}
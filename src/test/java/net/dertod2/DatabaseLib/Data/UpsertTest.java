@@ -0,0 +1,53 @@
+package net.dertod2.DatabaseLib.Data;
+
+import net.dertod2.DatabaseLib.Database.SQLiteDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpsertTest {
+
+    @Test
+    void upsertInsertsNewRowsAndUpdatesExistingRows(@TempDir File directory) throws Exception {
+        Handler handler = new SQLiteDatabase(new File(directory, "upsert.db")).getHandler();
+
+        Entry existing = new Entry("existing");
+        handler.insert(existing);
+        assertTrue(existing.id > 0);
+
+        existing.name = "changed";
+        Entry first = new Entry("first");
+        Entry second = new Entry("second");
+
+        handler.upsert(List.of(first, existing, second));
+
+        assertEquals(3, handler.count(Entry.class, new Helper()));
+        assertTrue(first.id > 0 && second.id > 0);
+        assertNotEquals(first.id, second.id);
+        assertTrue(first.isLoaded() && second.isLoaded());
+
+        assertEquals("changed", handler.loadOne(Entry.class, new Helper().filter("id", existing.id)).name);
+        assertEquals("first", handler.loadOne(Entry.class, new Helper().filter("id", first.id)).name);
+        assertEquals("second", handler.loadOne(Entry.class, new Helper().filter("id", second.id)).name);
+    }
+
+    @Table(name = "upsert_entries")
+    public static class Entry extends Row {
+        @Column(name = "id", columnType = Column.ColumnType.Primary, autoIncrement = true)
+        private int id;
+
+        @Column(name = "name")
+        private String name;
+
+        public Entry() {
+        }
+
+        Entry(String name) {
+            this.name = name;
+        }
+    }
+}